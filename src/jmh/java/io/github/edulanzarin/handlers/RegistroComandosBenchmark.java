@@ -0,0 +1,93 @@
+package io.github.edulanzarin.handlers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara {@link RegistroComandos#despachar} com o switch usado antes dele.
+ *
+ * {@code switchAntigo} é o switch sobre o texto inteiro da mensagem, que só
+ * reconhecia "/start" e "/help" exatos. {@code switchComParsing} separa o
+ * comando dos argumentos e do sufixo {@code @bot} com split e substring antes
+ * do switch, para ter o mesmo comportamento do registro.
+ *
+ * Os manipuladores devolvem respostas prontas, para medir só o roteamento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistroComandosBenchmark {
+
+    private static final String BOT = "MeuBot";
+
+    private static final Resposta START = Resposta.texto("start");
+    private static final Resposta HELP = Resposta.texto("help");
+    private static final Resposta ASSINATURA = Resposta.texto("assinatura");
+    private static final Resposta PLANOS = Resposta.texto("planos");
+    private static final Resposta NAO_RECONHECIDO = Resposta.texto("naoReconhecido");
+
+    @Param({ "/start", "/help@MeuBot", "/start plano_mensal", "/desconhecido" })
+    public String texto;
+
+    private RegistroComandos registro;
+
+    @Setup
+    public void setUp() {
+        registro = new RegistroComandos(BOT, (usuario, argumentos) -> NAO_RECONHECIDO);
+        registro.registrar("start", (usuario, argumentos) -> START);
+        registro.registrar("help", (usuario, argumentos) -> HELP);
+        registro.registrar("assinatura", (usuario, argumentos) -> ASSINATURA);
+        registro.registrar("planos", (usuario, argumentos) -> PLANOS);
+    }
+
+    @Benchmark
+    public Resposta registro() {
+        return registro.despachar(texto, null);
+    }
+
+    @Benchmark
+    public Resposta switchAntigo() {
+        return switch (texto) {
+            case "/start" -> START;
+            case "/help" -> HELP;
+            case "/assinatura" -> ASSINATURA;
+            case "/planos" -> PLANOS;
+            default -> NAO_RECONHECIDO;
+        };
+    }
+
+    @Benchmark
+    public Resposta switchComParsing() {
+        String comando = texto.trim().split("\\s+", 2)[0];
+        int arroba = comando.indexOf('@');
+        if (arroba >= 0) {
+            if (!comando.substring(arroba + 1).equalsIgnoreCase(BOT)) {
+                return null;
+            }
+            comando = comando.substring(0, arroba);
+        }
+
+        return switch (comando.toLowerCase(Locale.ROOT)) {
+            case "/start" -> START;
+            case "/help" -> HELP;
+            case "/assinatura" -> ASSINATURA;
+            case "/planos" -> PLANOS;
+            default -> NAO_RECONHECIDO;
+        };
+    }
+}
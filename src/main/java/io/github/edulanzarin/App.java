@@ -1,11 +1,28 @@
 package io.github.edulanzarin;
 
+import io.github.edulanzarin.config.Config;
 import io.github.edulanzarin.core.Bot;
+import io.github.edulanzarin.core.ModoExecucao;
+import io.github.edulanzarin.core.ModoRecebimento;
+import io.github.edulanzarin.core.MonitorPinning;
+import io.github.edulanzarin.core.ReceptorMercadoPago;
+import io.github.edulanzarin.core.ReceptorWebhook;
+import io.github.edulanzarin.services.CacheMensagens;
+import io.github.edulanzarin.services.CacheUsuarios;
+import io.github.edulanzarin.services.ColetorEventos;
+import io.github.edulanzarin.services.ExpiradorPagamentos;
+import io.github.edulanzarin.services.RetencaoDados;
+import io.github.edulanzarin.services.SpoolEventos;
+import io.github.edulanzarin.services.FirebaseService;
 import io.github.edulanzarin.utils.CarregarEnv;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotSession;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+import java.io.IOException;
+
 public class App {
     public static void main(String[] args) {
         // Carrega variáveis do arquivo .env
@@ -20,16 +37,131 @@ public class App {
                         "Variáveis TELEGRAM_BOT_TOKEN e TELEGRAM_BOT_USERNAME devem ser configuradas no arquivo .env");
             }
 
-            TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
-            botsApi.registerBot(new Bot(botToken, botUsername));
-            System.out.println("Bot iniciado com sucesso!");
+            ModoExecucao modoExecucao = ModoExecucao.doAmbiente();
+            if (modoExecucao == ModoExecucao.VIRTUAL) {
+                // A inicialização de classes prende a virtual thread à carrier;
+                // carrega o Firebase aqui para que isso não ocorra no primeiro update
+                FirebaseService.initialize();
+                new MonitorPinning().iniciar();
+            }
+
+            // Mantém os templates de resposta em memória, sincronizados pelo Firestore
+            CacheMensagens.getInstance().iniciarEscuta();
+            CacheUsuarios.getInstance().carregarEmSegundoPlano();
+            if (Config.Eventos.SPOOL_HABILITADO) {
+                SpoolEventos.getInstance().iniciar();
+            }
+            // Cancela os pagamentos pendentes quando o vencimento passar
+            ExpiradorPagamentos.getInstance().iniciar();
+            // Compacta eventos e apaga mensagens além do período de retenção
+            RetencaoDados.getInstance().iniciar();
+
+            Bot bot = new Bot(botToken, botUsername, modoExecucao);
+            ModoRecebimento modoRecebimento = ModoRecebimento.doAmbiente();
+            Runnable pararRecebimento;
+            if (modoRecebimento == ModoRecebimento.WEBHOOK) {
+                ReceptorWebhook receptor = iniciarWebhook(bot);
+                pararRecebimento = () -> {
+                    receptor.encerrar();
+                    bot.onClosing();
+                };
+            } else {
+                TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
+                BotSession sessao = botsApi.registerBot(bot);
+                pararRecebimento = sessao::stop;
+            }
+
+            // Desativa assinaturas vencidas e avisa as que estão perto do fim
+            bot.getVerificadorAssinaturas().iniciar();
+
+            // Notificações de pagamento, quando o webhook do Mercado Pago estiver configurado
+            ReceptorMercadoPago receptorPagamentos = iniciarNotificacoesPagamento(bot);
+
+            // Continua as transmissões interrompidas que esta instância reivindicar
+            bot.getMotorTransmissao().iniciarRetomada();
+
+            // Encerra o recebimento, aguarda os updates em andamento e grava os
+            // eventos pendentes ao finalizar a JVM
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (receptorPagamentos != null) {
+                    receptorPagamentos.encerrar();
+                }
+                pararRecebimento.run();
+                ExpiradorPagamentos.getInstance().encerrar();
+                RetencaoDados.getInstance().encerrar();
+                ColetorEventos.getInstance().encerrar();
+                SpoolEventos.getInstance().encerrar();
+            }));
+            System.out.println("Bot iniciado com sucesso! Modo de execução: " + modoExecucao
+                    + ", recebimento: " + modoRecebimento);
         } catch (TelegramApiException e) {
             System.err.println("Erro ao iniciar o bot: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Erro ao iniciar o servidor de webhook: " + e.getMessage());
+            System.exit(1);
         } catch (IllegalStateException e) {
             System.err.println("Erro de configuração: " + e.getMessage());
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Registra o webhook no Telegram e inicia o servidor que recebe os updates.
+     */
+    private static ReceptorWebhook iniciarWebhook(Bot bot) throws TelegramApiException, IOException {
+        String url = System.getProperty(Config.TelegramBot.ENV_WEBHOOK_URL);
+        String segredo = System.getProperty(Config.TelegramBot.ENV_WEBHOOK_SEGREDO);
+        if (url == null || segredo == null) {
+            throw new IllegalStateException("Variáveis " + Config.TelegramBot.ENV_WEBHOOK_URL + " e "
+                    + Config.TelegramBot.ENV_WEBHOOK_SEGREDO + " devem ser configuradas no modo webhook");
+        }
+
+        int porta = Config.TelegramBot.WEBHOOK_PORTA_PADRAO;
+        String portaConfigurada = System.getProperty(Config.TelegramBot.ENV_WEBHOOK_PORTA);
+        if (portaConfigurada != null) {
+            try {
+                porta = Integer.parseInt(portaConfigurada.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Porta inválida em " + Config.TelegramBot.ENV_WEBHOOK_PORTA);
+            }
+        }
+
+        ReceptorWebhook receptor = new ReceptorWebhook(bot, porta, segredo);
+        receptor.iniciar();
+
+        bot.execute(SetWebhook.builder()
+                .url(url.replaceAll("/+$", "") + Config.TelegramBot.WEBHOOK_CAMINHO)
+                .secretToken(segredo)
+                .allowedUpdates(Config.TelegramBot.TIPOS_UPDATE_PERMITIDOS)
+                .build());
+        return receptor;
+    }
+
+    /**
+     * Inicia o servidor de notificações do Mercado Pago.
+     *
+     * @return Receptor iniciado ou null se o segredo do webhook não estiver configurado
+     */
+    private static ReceptorMercadoPago iniciarNotificacoesPagamento(Bot bot) throws IOException {
+        String segredo = System.getProperty(Config.MercadoPago.ENV_WEBHOOK_SEGREDO);
+        if (segredo == null || segredo.trim().isEmpty()) {
+            return null;
+        }
+
+        int porta = Config.MercadoPago.WEBHOOK_PORTA_PADRAO;
+        String portaConfigurada = System.getProperty(Config.MercadoPago.ENV_WEBHOOK_PORTA);
+        if (portaConfigurada != null) {
+            try {
+                porta = Integer.parseInt(portaConfigurada.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Porta inválida em " + Config.MercadoPago.ENV_WEBHOOK_PORTA);
+            }
+        }
+
+        ReceptorMercadoPago receptor = new ReceptorMercadoPago(bot, porta, segredo);
+        receptor.iniciar();
+        return receptor;
+    }
+}
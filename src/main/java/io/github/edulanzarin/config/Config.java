@@ -1,6 +1,7 @@
 package io.github.edulanzarin.config;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Classe de configuração centralizada para o Telegram Bot.
@@ -30,6 +31,8 @@ public final class Config {
         public static final String COLLECTION_RESPOSTAS = "respostas";
         public static final String COLLECTION_EVENTOS = "eventos";
         public static final String COLLECTION_MENSAGENS = "mensagens";
+        public static final String COLLECTION_TRANSMISSOES = "transmissoes";
+        public static final String COLLECTION_RESUMOS_EVENTOS = "resumos_eventos";
 
         // Campos obrigatórios das variáveis de ambiente
         public static final String[] REQUIRED_ENV_VARS = {
@@ -50,6 +53,9 @@ public final class Config {
         public static final Duration READ_TIMEOUT = Duration.ofSeconds(10);
         public static final Duration WRITE_TIMEOUT = Duration.ofSeconds(15);
         public static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(5);
+
+        // Quantidade de documentos por página em consultas paginadas
+        public static final int TAMANHO_PAGINA = 1000;
     }
 
     /*
@@ -63,6 +69,9 @@ public final class Config {
         public static final String ENV_BOT_TOKEN = "TELEGRAM_BOT_TOKEN";
         public static final String ENV_BOT_USERNAME = "TELEGRAM_BOT_USERNAME";
 
+        // IDs dos usuários administradores, separados por vírgula (ex.: /transmitir)
+        public static final String ENV_ADMINS = "TELEGRAM_ADMINS";
+
         // Limites de mensagens
         public static final int MAX_MESSAGE_LENGTH = 4096;
         public static final int MAX_CAPTION_LENGTH = 1024;
@@ -74,6 +83,29 @@ public final class Config {
         // Rate limiting
         public static final int MAX_MESSAGES_PER_SECOND = 30;
         public static final int MAX_MESSAGES_PER_MINUTE = 20;
+
+        // Fila de envio
+        public static final int RAJADA_POR_CHAT = 3; // Mensagens seguidas antes de limitar o chat
+        public static final int CAPACIDADE_FILA_ENVIO = 10_000;
+        public static final int MAX_ENVIOS_EM_VOO = 32; // Requisições de envio simultâneas
+        public static final Duration ESPERA_ESPACO_FILA_ENVIO = Duration.ofSeconds(1); // Envios em massa aguardando espaço
+
+        // getUpdates: updates por lote, espera do long polling (segundos) e tipos recebidos
+        public static final int LIMITE_GET_UPDATES = 100;
+        public static final int TIMEOUT_GET_UPDATES = 50;
+        public static final List<String> TIPOS_UPDATE_PERMITIDOS = List.of("message", "callback_query");
+
+        // Recebimento de updates: POLLING (padrão) ou WEBHOOK
+        public static final String ENV_MODO_RECEBIMENTO = "BOT_MODO_RECEBIMENTO";
+
+        // Webhook: URL pública, segredo do cabeçalho X-Telegram-Bot-Api-Secret-Token e porta local
+        public static final String ENV_WEBHOOK_URL = "TELEGRAM_WEBHOOK_URL";
+        public static final String ENV_WEBHOOK_SEGREDO = "TELEGRAM_WEBHOOK_SEGREDO";
+        public static final String ENV_WEBHOOK_PORTA = "TELEGRAM_WEBHOOK_PORTA";
+        public static final int WEBHOOK_PORTA_PADRAO = 8080;
+        public static final String WEBHOOK_CAMINHO = "/telegram/webhook";
+        public static final int WEBHOOK_TAMANHO_MAXIMO = 1024 * 1024; // 1MB por update
+        public static final int WEBHOOK_THREADS = 8;
     }
 
     /*
@@ -93,6 +125,56 @@ public final class Config {
         // Tentativas de retry para confirmação
         public static final int MAX_TENTATIVAS_CONFIRMACAO = 3;
         public static final Duration INTERVALO_RETRY = Duration.ofSeconds(5);
+
+        // Expiração: pagamentos vencidos cancelados por vez e espera para agrupar vencimentos próximos
+        public static final int LOTE_EXPIRACAO = 500;
+        public static final Duration ESPERA_LOTE_EXPIRACAO = Duration.ofSeconds(5);
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * CONFIGURAÇÕES DO MERCADO PAGO
+     * -----------------------------------------------------------
+     */
+
+    public static final class MercadoPago {
+        // Variáveis de ambiente
+        public static final String ENV_ACCESS_TOKEN = "MERCADOPAGO_ACCESS_TOKEN";
+        public static final String ENV_URL_BASE = "MERCADOPAGO_URL_BASE";
+        public static final String ENV_EMAIL_PAGADOR = "MERCADOPAGO_EMAIL_PAGADOR";
+        public static final String ENV_URL_NOTIFICACAO = "MERCADOPAGO_URL_NOTIFICACAO";
+
+        // API
+        public static final String URL_BASE_PADRAO = "https://api.mercadopago.com";
+        public static final String CAMINHO_PAGAMENTOS = "/v1/payments";
+
+        // E-mail do pagador quando não configurado: telegram-<id>@<domínio>
+        public static final String DOMINIO_EMAIL_PADRAO = "usuarios.telegram.invalid";
+
+        // Timeouts das requisições HTTP
+        public static final Duration TIMEOUT_CONEXAO = Duration.ofSeconds(5);
+        public static final Duration TIMEOUT_REQUISICAO = Duration.ofSeconds(15);
+
+        // Cobranças do mesmo usuário e plano nesta janela usam o mesmo X-Idempotency-Key
+        public static final Duration JANELA_IDEMPOTENCIA = Duration.ofMinutes(1);
+
+        // Notificações de pagamento (webhook)
+        public static final String ENV_WEBHOOK_SEGREDO = "MERCADOPAGO_WEBHOOK_SEGREDO";
+        public static final String ENV_WEBHOOK_PORTA = "MERCADOPAGO_WEBHOOK_PORTA";
+        public static final int WEBHOOK_PORTA_PADRAO = 8081;
+        public static final String WEBHOOK_CAMINHO = "/mercadopago/notificacoes";
+        public static final int WEBHOOK_TAMANHO_MAXIMO = 64 * 1024; // 64KB por notificação
+        public static final int WEBHOOK_THREADS = 2;
+
+        // Diferença máxima entre o ts do x-signature e o relógio local
+        public static final Duration TOLERANCIA_ASSINATURA = Duration.ofMinutes(5);
+
+        // IDs de notificação lembrados para descartar reenvios
+        public static final int JANELA_DEDUPLICACAO = 10_000;
+
+        // Confirmações processadas em paralelo e limite de confirmações pendentes
+        public static final int THREADS_CONFIRMACAO = 4;
+        public static final int CAPACIDADE_FILA_CONFIRMACAO = 5_000;
     }
 
     /*
@@ -110,6 +192,9 @@ public final class Config {
 
         // Dias de antecedência para notificar sobre expiração
         public static final int DIAS_AVISO_EXPIRACAO = 7;
+
+        // Assinaturas lidas e processadas por vez na verificação de expiração
+        public static final int TAMANHO_PAGINA_VERIFICACAO = 500;
     }
 
     /*
@@ -127,6 +212,12 @@ public final class Config {
         public static final String CHAVE_VIDEO_INICIAL = "video_inicial";
         public static final String CHAVE_INFORMACOES_GRUPO = "informacoes_grupo";
         public static final String CHAVE_BOTOES_PLANOS = "botoes_planos";
+        public static final String CHAVE_PLANO_SELECIONADO = "plano_selecionado";
+        public static final String CHAVE_PIX_GERADO = "pix_gerado";
+        public static final String CHAVE_AVISO_EXPIRACAO = "aviso_expiracao";
+
+        // Deep links do /start: "plano_<tipo>" oferece um plano, outros payloads oferecem todos
+        public static final String PREFIXO_PAYLOAD_PLANO = "plano_";
 
         // Mensagens de erro padrão
         public static final String ERRO_GENERICO = "Desculpe, ocorreu um erro. Tente novamente mais tarde.";
@@ -138,10 +229,85 @@ public final class Config {
         public static final String SUCESSO_PAGAMENTO = "Pagamento processado com sucesso!";
         public static final String SUCESSO_ASSINATURA = "Assinatura ativada com sucesso!";
 
+        // Respostas dos comandos de administração
+        public static final String USO_TRANSMITIR = "Uso: /transmitir <mensagem>";
+        public static final String USO_CANCELAR_TRANSMISSAO = "Uso: /cancelar_transmissao <id>";
+        public static final String TRANSMISSAO_INICIADA = "Transmissão %s iniciada.";
+        public static final String TRANSMISSAO_CANCELADA = "Transmissão %s cancelada.";
+        public static final String TRANSMISSAO_NAO_ENCONTRADA = "Nenhuma transmissão em andamento com o ID %s.";
+
         // Timeout para cache de mensagens
         public static final Duration CACHE_TIMEOUT = Duration.ofMinutes(30);
     }
 
+    /*
+     * -----------------------------------------------------------
+     * CONFIGURAÇÕES DE EVENTOS
+     * -----------------------------------------------------------
+     */
+
+    public static final class Eventos {
+        // Eventos aguardando gravação; acima disso novos eventos são descartados
+        public static final int CAPACIDADE_FILA = 10_000;
+
+        // Tempo máximo que um evento espera para ser gravado em lote
+        public static final Duration INTERVALO_FLUSH = Duration.ofSeconds(2);
+
+        // Tempo de espera pela gravação dos eventos pendentes no encerramento
+        public static final Duration TEMPO_ENCERRAMENTO = Duration.ofSeconds(30);
+
+        // Spool local: eventos são gravados em disco antes de seguir ao Firestore
+        public static final boolean SPOOL_HABILITADO = true;
+        public static final String DIRETORIO_SPOOL = "spool/eventos";
+        public static final long TAMANHO_SEGMENTO_SPOOL = 16L * 1024 * 1024; // 16MB
+        public static final long LIMITE_DISCO_SPOOL = 512L * 1024 * 1024; // 512MB
+
+        // Espera máxima entre tentativas de reenvio do spool ao Firestore
+        public static final Duration ESPERA_MAXIMA_REENVIO = Duration.ofMinutes(1);
+
+        // Eventos lidos por página nas consultas por usuário
+        public static final int TAMANHO_PAGINA_CONSULTA = 200;
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * CONFIGURAÇÕES DE RETENÇÃO
+     * -----------------------------------------------------------
+     */
+
+    public static final class Retencao {
+        // Eventos e mensagens mais antigos que isso são compactados ou apagados
+        public static final Duration RETENCAO_EVENTOS = Duration.ofDays(30);
+        public static final Duration RETENCAO_MENSAGENS = Duration.ofDays(30);
+
+        // Campo com a política de TTL do Firestore; a folga deixa a compactação rodar antes do TTL
+        public static final String CAMPO_EXPIRACAO = "expiraEm";
+        public static final Duration EXPIRACAO_EVENTOS = RETENCAO_EVENTOS.plusDays(7);
+
+        // Execução em segundo plano: intervalo, documentos por página e teto de escritas por segundo
+        public static final Duration INTERVALO_EXECUCAO = Duration.ofHours(24);
+        public static final int TAMANHO_PAGINA = 250;
+        public static final int OPERACOES_POR_SEGUNDO = 200;
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * CONFIGURAÇÕES DE TRANSMISSÃO
+     * -----------------------------------------------------------
+     */
+
+    public static final class Transmissao {
+        // Usuários lidos e enviados por vez; o progresso é salvo ao fim de cada página
+        public static final int TAMANHO_PAGINA = 500;
+
+        // Concessão da instância que executa a transmissão, renovada a cada página;
+        // folgada em relação ao tempo de envio de uma página (~17s a 30 msg/s)
+        public static final Duration DURACAO_CONCESSAO = Duration.ofMinutes(5);
+
+        // Intervalo entre as buscas por transmissões sem dono para retomar
+        public static final Duration INTERVALO_RETOMADA = Duration.ofMinutes(1);
+    }
+
     /*
      * -----------------------------------------------------------
      * CONFIGURAÇÕES DE LOGGING
@@ -181,6 +347,19 @@ public final class Config {
         public static final int MAX_POOL_SIZE = 20;
         public static final Duration KEEP_ALIVE_TIME = Duration.ofMinutes(5);
 
+        // Limite de updates aguardando processamento (backpressure do despacho)
+        public static final int CAPACIDADE_FILA_DESPACHO = 1000;
+
+        // Espera máxima de cada chat pelo cadastro em lote dos autores do lote;
+        // depois dela, cada mensagem verifica seu usuário individualmente
+        public static final Duration ESPERA_CADASTRO_LOTE = Duration.ofSeconds(2);
+
+        // Modo de execução dos updates: PLATAFORMA (pool) ou VIRTUAL (virtual threads)
+        public static final String ENV_MODO_EXECUCAO = "BOT_MODO_EXECUCAO";
+
+        // Tempo mínimo de pinning de uma virtual thread para ser registrado em log
+        public static final Duration LIMIAR_PINNING = Duration.ofMillis(20);
+
         // Configurações de retry
         public static final int MAX_RETRY_ATTEMPTS = 3;
         public static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
@@ -189,6 +368,11 @@ public final class Config {
         // Configurações de cache
         public static final long MAX_CACHE_SIZE = 1000;
         public static final Duration CACHE_EXPIRATION = Duration.ofMinutes(15);
+
+        // Cache de usuários conhecidos (filtro de Bloom de IDs + LRU de perfis)
+        public static final int MAX_USUARIOS_CACHE = 10_000;
+        public static final int CAPACIDADE_FILTRO_USUARIOS = 1_000_000;
+        public static final double TAXA_FALSO_POSITIVO_FILTRO = 0.01;
     }
 
     /*
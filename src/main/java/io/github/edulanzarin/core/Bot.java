@@ -1,17 +1,51 @@
 package io.github.edulanzarin.core;
 
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.handlers.CallbacksHandler;
 import io.github.edulanzarin.handlers.ComandosHandler;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public class Bot extends TelegramLongPollingBot {
     private final String botUsername;
     private final ComandosHandler comandosHandler;
+    private final CallbacksHandler callbacksHandler;
+    private final DespachadorAtualizacoes despachador;
+    private final FilaEnvio filaEnvio;
+    private final MotorTransmissao motorTransmissao;
+    private final VerificadorAssinaturas verificadorAssinaturas;
 
-    public Bot(String botToken, String botUsername) {
-        super(botToken);
+    public Bot(String botToken, String botUsername, ModoExecucao modoExecucao) {
+        super(criarOpcoes(), botToken);
         this.botUsername = botUsername;
+        this.filaEnvio = new FilaEnvio(this);
+        this.motorTransmissao = new MotorTransmissao(filaEnvio);
+        this.verificadorAssinaturas = new VerificadorAssinaturas(filaEnvio);
         this.comandosHandler = new ComandosHandler(this);
+        this.callbacksHandler = new CallbacksHandler(this);
+        this.despachador = new DespachadorAtualizacoes(modoExecucao);
+    }
+
+    private static DefaultBotOptions criarOpcoes() {
+        DefaultBotOptions opcoes = new DefaultBotOptions();
+        // Threads usadas pelo executeAsync: uma por envio simultâneo
+        opcoes.setMaxThreads(Config.TelegramBot.MAX_ENVIOS_EM_VOO);
+        // getUpdates: lotes maiores, espera longa e apenas os tipos tratados
+        opcoes.setGetUpdatesLimit(Config.TelegramBot.LIMITE_GET_UPDATES);
+        opcoes.setGetUpdatesTimeout(Config.TelegramBot.TIMEOUT_GET_UPDATES);
+        opcoes.setAllowedUpdates(Config.TelegramBot.TIPOS_UPDATE_PERMITIDOS);
+        return opcoes;
     }
 
     @Override
@@ -19,10 +53,102 @@ public class Bot extends TelegramLongPollingBot {
         return botUsername;
     }
 
+    public FilaEnvio getFilaEnvio() {
+        return filaEnvio;
+    }
+
+    public MotorTransmissao getMotorTransmissao() {
+        return motorTransmissao;
+    }
+
+    public VerificadorAssinaturas getVerificadorAssinaturas() {
+        return verificadorAssinaturas;
+    }
+
     @Override
     public void onUpdateReceived(Update update) {
-        if (update.hasMessage() && update.getMessage().hasText()) {
-            comandosHandler.processarMensagemRecebida(update.getMessage());
+        onUpdatesReceived(List.of(update));
+    }
+
+    /**
+     * Processa um lote de updates: os callbacks são confirmados imediatamente,
+     * os autores das mensagens são cadastrados de uma vez no Firestore em uma
+     * thread do despachante, e os updates tratados são agrupados por chat, na
+     * ordem de chegada, com cada grupo despachado como uma única tarefa.
+     *
+     * Nenhum acesso ao Firestore é feito na thread de recebimento. As tarefas
+     * de chats com mensagens aguardam o cadastro em lote por até
+     * {@code Config.App.ESPERA_CADASTRO_LOTE}; se ele demorar mais ou falhar,
+     * cada mensagem verifica seu usuário individualmente.
+     */
+    @Override
+    public void onUpdatesReceived(List<Update> updates) {
+        List<Message> mensagens = new ArrayList<>(updates.size());
+        Map<Long, List<Update>> updatesPorChat = new LinkedHashMap<>();
+        for (Update update : updates) {
+            if (update.hasMessage() && update.getMessage().hasText()) {
+                Message mensagem = update.getMessage();
+                mensagens.add(mensagem);
+                updatesPorChat.computeIfAbsent(mensagem.getChatId(), id -> new ArrayList<>()).add(update);
+            } else if (update.hasCallbackQuery()) {
+                callbacksHandler.confirmarRecebimento(update.getCallbackQuery());
+                updatesPorChat.computeIfAbsent(CallbacksHandler.chatDo(update.getCallbackQuery()),
+                        id -> new ArrayList<>()).add(update);
+            }
         }
+
+        CompletableFuture<Void> cadastro = mensagens.isEmpty()
+                ? CompletableFuture.completedFuture(null)
+                : despachador.executarEtapa(() -> comandosHandler.prepararLote(mensagens));
+
+        try {
+            for (Map.Entry<Long, List<Update>> grupo : updatesPorChat.entrySet()) {
+                List<Update> doChat = grupo.getValue();
+                boolean temMensagem = doChat.stream().anyMatch(Update::hasMessage);
+                despachador.despachar(grupo.getKey(), () -> {
+                    if (temMensagem) {
+                        aguardarCadastro(cadastro);
+                    }
+                    processarUpdates(doChat);
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void aguardarCadastro(CompletableFuture<Void> cadastro) {
+        try {
+            cadastro.get(Config.App.ESPERA_CADASTRO_LOTE.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Segue sem o lote: o processamento da mensagem verifica o usuário
+        }
+    }
+
+    private void processarUpdates(List<Update> updates) {
+        for (Update update : updates) {
+            try {
+                if (update.hasCallbackQuery()) {
+                    callbacksHandler.processar(update.getCallbackQuery());
+                } else {
+                    comandosHandler.processarMensagemRecebida(update.getMessage());
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[ERRO] Ao processar update " + update.getUpdateId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onClosing() {
+        despachador.encerrar();
+        motorTransmissao.encerrar();
+        verificadorAssinaturas.encerrar();
+        filaEnvio.encerrar();
+        // Por último: encerra o executor do executeAsync, usado até aqui pelos
+        // updates em andamento e pela drenagem da fila de envio
+        super.onClosing();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,211 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Despacha os updates recebidos do Telegram para processamento concorrente.
+ *
+ * Updates de chats diferentes são processados em paralelo, enquanto updates de
+ * um mesmo chat são executados um de cada vez, na ordem em que chegaram.
+ *
+ * No modo {@link ModoExecucao#PLATAFORMA} as filas são processadas pelo pool
+ * dimensionado em {@code Config.App}; no modo {@link ModoExecucao#VIRTUAL}
+ * cada chat em processamento ganha sua própria virtual thread, que percorre o
+ * caminho completo do update (registro no Firestore e envio da resposta).
+ *
+ * O total de updates pendentes é limitado por
+ * {@code Config.App.CAPACIDADE_FILA_DESPACHO}. Quando o limite é atingido, a
+ * thread de recebimento fica bloqueada até que um update termine, aplicando
+ * backpressure na leitura de novos updates.
+ */
+public class DespachadorAtualizacoes {
+
+    private static final Logger logger = Logger.getLogger(
+            DespachadorAtualizacoes.class.getName());
+
+    private static final long TEMPO_ENCERRAMENTO_SEGUNDOS = 30;
+
+    private final ExecutorService executor;
+    private final Semaphore vagas;
+    private final ConcurrentHashMap<Long, FilaChat> filas = new ConcurrentHashMap<>();
+
+    public DespachadorAtualizacoes(ModoExecucao modo) {
+        this.vagas = new Semaphore(Config.App.CAPACIDADE_FILA_DESPACHO);
+        this.executor = modo == ModoExecucao.VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("despacho-vt-", 0).factory())
+                : criarPoolPlataforma();
+    }
+
+    private static ExecutorService criarPoolPlataforma() {
+        // Fila sem limite: a capacidade total de updates é controlada pelo
+        // semáforo, que bloqueia a thread de recebimento. As threads são todas
+        // "core" para o pool chegar a MAX_POOL_SIZE sem depender de a fila
+        // encher, e expiram quando ociosas.
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                Config.App.MAX_POOL_SIZE,
+                Config.App.MAX_POOL_SIZE,
+                Config.App.KEEP_ALIVE_TIME.toMillis(),
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                criarFabricaThreads());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Enfileira uma tarefa para o chat informado, bloqueando enquanto a
+     * capacidade de despacho estiver esgotada.
+     *
+     * @param chatId ID do chat de origem do update
+     * @param tarefa Processamento do update
+     * @throws InterruptedException se a espera por vaga for interrompida
+     */
+    public void despachar(long chatId, Runnable tarefa) throws InterruptedException {
+        if (tarefa == null) {
+            throw new IllegalArgumentException("Tarefa não pode ser nula");
+        }
+
+        vagas.acquire();
+        try {
+            while (true) {
+                FilaChat fila = filas.computeIfAbsent(chatId, id -> new FilaChat());
+                synchronized (fila) {
+                    if (fila.encerrada) {
+                        continue; // Fila sendo descartada, busca uma nova
+                    }
+                    fila.tarefas.addLast(tarefa);
+                    if (fila.ativa) {
+                        return;
+                    }
+                    fila.ativa = true;
+                }
+                try {
+                    executor.execute(() -> processarFila(chatId, fila));
+                } catch (RejectedExecutionException e) {
+                    descartarFila(chatId, fila);
+                }
+                return;
+            }
+        } catch (RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Executa uma etapa de um lote de updates fora da thread de recebimento,
+     * sem ordem em relação às filas dos chats. Não ocupa vagas de despacho.
+     *
+     * @param etapa Processamento comum ao lote
+     * @return Future concluído ao fim da etapa; falho se o executor a recusar
+     */
+    public CompletableFuture<Void> executarEtapa(Runnable etapa) {
+        try {
+            return CompletableFuture.runAsync(etapa, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Descarta a fila de um chat recusada pelo executor (encerramento em
+     * andamento), liberando as vagas das tarefas que não serão executadas.
+     */
+    private void descartarFila(long chatId, FilaChat fila) {
+        int descartadas;
+        synchronized (fila) {
+            descartadas = fila.tarefas.size();
+            fila.tarefas.clear();
+            fila.ativa = false;
+            fila.encerrada = true;
+            filas.remove(chatId, fila);
+        }
+        vagas.release(descartadas);
+        logger.log(Level.WARNING, "Despachante encerrado: {0} update(s) do chat {1} descartado(s)",
+                new Object[] { descartadas, chatId });
+    }
+
+    /**
+     * Executa as tarefas pendentes de um chat até esvaziar sua fila.
+     */
+    private void processarFila(long chatId, FilaChat fila) {
+        while (true) {
+            Runnable tarefa;
+            synchronized (fila) {
+                tarefa = fila.tarefas.pollFirst();
+                if (tarefa == null) {
+                    fila.ativa = false;
+                    fila.encerrada = true;
+                    filas.remove(chatId, fila);
+                    return;
+                }
+            }
+
+            try {
+                tarefa.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Erro ao processar update do chat " + chatId, e);
+            } finally {
+                vagas.release();
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de updates aguardando ou em processamento.
+     */
+    public int pendentes() {
+        return Config.App.CAPACIDADE_FILA_DESPACHO - vagas.availablePermits();
+    }
+
+    /**
+     * Para de aceitar novos updates e aguarda o término dos que estão em
+     * andamento.
+     */
+    public void encerrar() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(TEMPO_ENCERRAMENTO_SEGUNDOS, TimeUnit.SECONDS)) {
+                logger.log(Level.WARNING, "Updates pendentes descartados no encerramento: {0}", pendentes());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory criarFabricaThreads() {
+        AtomicInteger contador = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "despacho-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Fila de updates de um único chat.
+     */
+    private static final class FilaChat {
+        private final ArrayDeque<Runnable> tarefas = new ArrayDeque<>();
+        private boolean ativa; // Há uma thread processando esta fila
+        private boolean encerrada; // Fila removida do mapa, não aceita novas tarefas
+    }
+}
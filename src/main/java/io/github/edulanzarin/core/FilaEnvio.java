@@ -0,0 +1,377 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.utils.BaldeTokens;
+import io.github.edulanzarin.utils.HistogramaLatencia;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fila de envio das mensagens do bot, respeitando os limites de taxa do
+ * Telegram.
+ *
+ * Quem envia apenas enfileira a mensagem e retorna; uma thread agendadora
+ * libera cada mensagem quando há token no balde global
+ * ({@code Config.TelegramBot.MAX_MESSAGES_PER_SECOND}) e no balde do chat
+ * ({@code Config.TelegramBot.MAX_MESSAGES_PER_MINUTE}, com rajada de
+ * {@code Config.TelegramBot.RAJADA_POR_CHAT}). As mensagens de um mesmo chat
+ * são enviadas uma de cada vez, na ordem em que foram enfileiradas.
+ *
+ * Quando o Telegram responde 429, a mensagem volta para o início da fila do
+ * chat, que fica pausado pelo tempo indicado em {@code retry_after}.
+ *
+ * Os envios usam {@code executeAsync}: até
+ * {@code Config.TelegramBot.MAX_ENVIOS_EM_VOO} requisições ficam em andamento
+ * ao mesmo tempo, e o resultado de cada uma é entregue pelo
+ * {@link CompletableFuture} devolvido em {@link #enfileirar}. As latências
+ * de envio (requisição) e total (desde o enfileiramento) são registradas em
+ * histogramas.
+ */
+public class FilaEnvio {
+
+    private static final Logger logger = Logger.getLogger(FilaEnvio.class.getName());
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final long TEMPO_ENCERRAMENTO_SEGUNDOS = 30;
+
+    private final AbsSender bot;
+    private final BaldeTokens baldeGlobal;
+    private final ConcurrentHashMap<Long, FilaChat> filas = new ConcurrentHashMap<>();
+    private final DelayQueue<Agendamento> agenda = new DelayQueue<>();
+    private final Semaphore emVoo = new Semaphore(Config.TelegramBot.MAX_ENVIOS_EM_VOO);
+    private final Thread agendador;
+    private volatile boolean aceitando = true;
+
+    private final AtomicInteger pendentes = new AtomicInteger();
+    private final AtomicLong enviadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong limitadas = new AtomicLong();
+    private final HistogramaLatencia latenciaEnvio = new HistogramaLatencia();
+    private final HistogramaLatencia latenciaTotal = new HistogramaLatencia();
+
+    public FilaEnvio(AbsSender bot) {
+        this.bot = bot;
+        this.baldeGlobal = new BaldeTokens(
+                Config.TelegramBot.MAX_MESSAGES_PER_SECOND,
+                Config.TelegramBot.MAX_MESSAGES_PER_SECOND,
+                Duration.ofSeconds(1));
+
+        this.agendador = new Thread(this::agendar, "agendador-envio");
+        this.agendador.setDaemon(true);
+        this.agendador.start();
+    }
+
+    /**
+     * Enfileira uma mensagem para envio, sem bloquear.
+     *
+     * @param chatId   ID do chat de destino
+     * @param mensagem Mensagem a ser enviada
+     * @return Futuro concluído com a mensagem enviada, ou com erro se o envio
+     *         falhar ou a fila estiver cheia ({@link RejectedExecutionException})
+     */
+    public CompletableFuture<Message> enfileirar(long chatId, SendMessage mensagem) {
+        if (mensagem == null) {
+            throw new IllegalArgumentException("Mensagem não pode ser nula");
+        }
+
+        if (!aceitando || pendentes.incrementAndGet() > Config.TelegramBot.CAPACIDADE_FILA_ENVIO) {
+            if (aceitando) {
+                pendentes.decrementAndGet();
+            }
+            descartadas.incrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Fila de envio cheia ou encerrada"));
+        }
+
+        Envio envio = new Envio(mensagem);
+        while (true) {
+            FilaChat fila = filas.computeIfAbsent(chatId, FilaChat::new);
+            synchronized (fila) {
+                if (fila.encerrada) {
+                    continue; // Fila sendo descartada, busca uma nova
+                }
+                fila.envios.addLast(envio);
+                if (!fila.agendada || fila.ociosa) {
+                    agendar(fila, 0);
+                }
+                return envio.resultado;
+            }
+        }
+    }
+
+    /**
+     * Laço da thread agendadora: libera as mensagens conforme os limites.
+     */
+    private void agendar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Agendamento agendamento;
+            try {
+                agendamento = agenda.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            FilaChat fila = agendamento.fila;
+            Envio envio;
+            synchronized (fila) {
+                if (agendamento.geracao != fila.geracao) {
+                    continue; // Substituído por um agendamento mais recente
+                }
+
+                if (fila.envios.isEmpty()) {
+                    liberarOuAguardar(fila);
+                    continue;
+                }
+
+                long espera = Math.max(fila.pausadaAte - System.nanoTime(), fila.balde.tempoAteDisponivel());
+                if (espera <= 0) {
+                    espera = baldeGlobal.tentarConsumir();
+                }
+                if (espera > 0) {
+                    agendar(fila, espera);
+                    continue;
+                }
+
+                fila.balde.tentarConsumir();
+                envio = fila.envios.pollFirst();
+                fila.agendada = true;
+                fila.geracao++; // Nenhum agendamento pendente até o envio terminar
+            }
+
+            try {
+                emVoo.acquire();
+            } catch (InterruptedException e) {
+                envio.resultado.completeExceptionally(e);
+                return;
+            }
+            enviar(fila, envio);
+        }
+    }
+
+    /**
+     * Remove a fila vazia do mapa quando o balde do chat estiver cheio; até
+     * lá a fila é mantida para não perder o histórico de envios do chat.
+     */
+    private void liberarOuAguardar(FilaChat fila) {
+        long ateCheio = fila.balde.tempoAteCheio();
+        if (ateCheio == 0) {
+            fila.agendada = false;
+            fila.encerrada = true;
+            filas.remove(fila.chatId, fila);
+        } else {
+            agendar(fila, ateCheio);
+            fila.ociosa = true;
+        }
+    }
+
+    private void enviar(FilaChat fila, Envio envio) {
+        long inicio = System.nanoTime();
+        CompletableFuture<Message> requisicao;
+        try {
+            requisicao = bot.executeAsync(envio.mensagem);
+        } catch (TelegramApiException | RuntimeException e) {
+            requisicao = CompletableFuture.failedFuture(e);
+        }
+
+        requisicao.whenComplete((enviada, erro) -> {
+            emVoo.release();
+            long agora = System.nanoTime();
+            latenciaEnvio.registrar(agora - inicio);
+            concluir(fila, envio, enviada, erro, agora);
+        });
+    }
+
+    private void concluir(FilaChat fila, Envio envio, Message enviada, Throwable erro, long agora) {
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                ? erro.getCause()
+                : erro;
+
+        if (causa instanceof TelegramApiRequestException) {
+            TelegramApiRequestException e = (TelegramApiRequestException) causa;
+            Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+            if (e.getErrorCode() != null && e.getErrorCode() == HTTP_TOO_MANY_REQUESTS && retryAfter != null) {
+                limitadas.incrementAndGet();
+                logger.log(Level.WARNING, "Limite do Telegram atingido no chat {0}; aguardando {1}s",
+                        new Object[] { fila.chatId, retryAfter });
+                synchronized (fila) {
+                    long pausa = TimeUnit.SECONDS.toNanos(retryAfter);
+                    fila.envios.addFirst(envio);
+                    fila.pausadaAte = agora + pausa;
+                    agendar(fila, pausa);
+                }
+                return;
+            }
+        }
+
+        pendentes.decrementAndGet();
+        if (causa == null) {
+            enviadas.incrementAndGet();
+            latenciaTotal.registrar(agora - envio.enfileiradaEm);
+            envio.resultado.complete(enviada);
+        } else {
+            descartadas.incrementAndGet();
+            logger.log(Level.SEVERE, "Erro ao enviar mensagem para o chat " + fila.chatId, causa);
+            envio.resultado.completeExceptionally(causa);
+        }
+
+        synchronized (fila) {
+            agendar(fila, 0);
+        }
+    }
+
+    /**
+     * Agenda o processamento da fila após o atraso informado, substituindo
+     * qualquer agendamento anterior. Deve ser chamado com o lock da fila.
+     */
+    private void agendar(FilaChat fila, long atrasoNanos) {
+        fila.agendada = true;
+        fila.ociosa = false;
+        fila.geracao++;
+        agenda.put(new Agendamento(fila, fila.geracao, System.nanoTime() + Math.max(0, atrasoNanos)));
+    }
+
+    /**
+     * Aguarda até a fila ter espaço para {@code quantidade} mensagens, deixando
+     * a capacidade restante para as respostas do bot. Usado por quem enfileira
+     * em massa (transmissões e avisos), uma página por vez.
+     */
+    public void aguardarEspaco(int quantidade) throws InterruptedException {
+        long espera = Config.TelegramBot.ESPERA_ESPACO_FILA_ENVIO.toMillis();
+        while (pendentes.get() > Config.TelegramBot.CAPACIDADE_FILA_ENVIO - quantidade) {
+            TimeUnit.MILLISECONDS.sleep(espera);
+        }
+    }
+
+    /**
+     * Quantidade de mensagens aguardando envio ou em envio.
+     */
+    public int pendentes() {
+        return pendentes.get();
+    }
+
+    public long getEnviadas() {
+        return enviadas.get();
+    }
+
+    public long getDescartadas() {
+        return descartadas.get();
+    }
+
+    public long getLimitadas() {
+        return limitadas.get();
+    }
+
+    /**
+     * Latência das requisições ao Telegram.
+     */
+    public HistogramaLatencia getLatenciaEnvio() {
+        return latenciaEnvio;
+    }
+
+    /**
+     * Latência desde o enfileiramento até a confirmação do envio.
+     */
+    public HistogramaLatencia getLatenciaTotal() {
+        return latenciaTotal;
+    }
+
+    /**
+     * Para de aceitar mensagens e aguarda o envio das pendentes.
+     */
+    public void encerrar() {
+        aceitando = false;
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(TEMPO_ENCERRAMENTO_SEGUNDOS);
+        try {
+            while (pendentes.get() > 0 && System.nanoTime() - prazo < 0) {
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (pendentes.get() > 0) {
+            logger.log(Level.WARNING, "Mensagens descartadas no encerramento: {0}", pendentes.get());
+        }
+        agendador.interrupt();
+
+        logger.log(Level.INFO, "Latência de envio: {0}", latenciaEnvio.resumo());
+        logger.log(Level.INFO, "Latência total: {0}", latenciaTotal.resumo());
+    }
+
+    /**
+     * Mensagens pendentes e limite de taxa de um único chat.
+     */
+    private static final class FilaChat {
+        private final long chatId;
+        private final ArrayDeque<Envio> envios = new ArrayDeque<>();
+        private final BaldeTokens balde = new BaldeTokens(
+                Config.TelegramBot.RAJADA_POR_CHAT,
+                Config.TelegramBot.MAX_MESSAGES_PER_MINUTE,
+                Duration.ofMinutes(1));
+        private long pausadaAte = System.nanoTime(); // Fim da pausa pedida pelo Telegram
+        private long geracao; // Identifica o agendamento válido
+        private boolean agendada; // Há agendamento pendente ou envio em andamento
+        private boolean ociosa; // Vazia, aguardando o balde encher para ser removida
+        private boolean encerrada; // Removida do mapa, não aceita novas mensagens
+
+        private FilaChat(long chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    /**
+     * Mensagem enfileirada e o futuro que recebe seu resultado.
+     */
+    private static final class Envio {
+        private final SendMessage mensagem;
+        private final CompletableFuture<Message> resultado = new CompletableFuture<>();
+        private final long enfileiradaEm = System.nanoTime();
+
+        private Envio(SendMessage mensagem) {
+            this.mensagem = mensagem;
+        }
+    }
+
+    /**
+     * Momento em que uma fila deve ser processada novamente.
+     */
+    private static final class Agendamento implements Delayed {
+        private final FilaChat fila;
+        private final long geracao;
+        private final long instante;
+
+        private Agendamento(FilaChat fila, long geracao, long instante) {
+            this.fila = fila;
+            this.geracao = geracao;
+            this.instante = instante;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(instante - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outro) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), outro.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+
+/**
+ * Define em que tipo de thread os updates são processados.
+ *
+ * - PLATAFORMA: pool de threads dimensionado por {@code Config.App}
+ * - VIRTUAL: uma virtual thread por chat em processamento, sem limite de pool
+ */
+public enum ModoExecucao {
+    PLATAFORMA,
+    VIRTUAL;
+
+    /**
+     * Lê o modo configurado na variável {@code BOT_MODO_EXECUCAO}, usando
+     * {@link #PLATAFORMA} quando ausente.
+     *
+     * @return Modo de execução configurado
+     * @throws IllegalStateException se o valor configurado for inválido
+     */
+    public static ModoExecucao doAmbiente() {
+        String valor = System.getProperty(Config.App.ENV_MODO_EXECUCAO);
+        if (valor == null || valor.trim().isEmpty()) {
+            return PLATAFORMA;
+        }
+
+        try {
+            return valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "Modo de execução inválido em " + Config.App.ENV_MODO_EXECUCAO + ": " + valor);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+
+/**
+ * Define como os updates chegam do Telegram.
+ *
+ * - POLLING: o bot busca os updates com getUpdates (long polling)
+ * - WEBHOOK: o Telegram envia os updates ao {@link ReceptorWebhook}
+ */
+public enum ModoRecebimento {
+    POLLING,
+    WEBHOOK;
+
+    /**
+     * Lê o modo configurado na variável {@code BOT_MODO_RECEBIMENTO}, usando
+     * {@link #POLLING} quando ausente.
+     *
+     * @return Modo de recebimento configurado
+     * @throws IllegalStateException se o valor configurado for inválido
+     */
+    public static ModoRecebimento doAmbiente() {
+        String valor = System.getProperty(Config.TelegramBot.ENV_MODO_RECEBIMENTO);
+        if (valor == null || valor.trim().isEmpty()) {
+            return POLLING;
+        }
+
+        try {
+            return valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "Modo de recebimento inválido em " + Config.TelegramBot.ENV_MODO_RECEBIMENTO + ": " + valor);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Monitora, via JFR, virtual threads que ficam presas (pinned) à carrier
+ * thread durante uma operação bloqueante.
+ *
+ * Cada ocorrência acima de {@code Config.App.LIMIAR_PINNING} é registrada em
+ * log com os frames do topo da pilha, para identificar blocos
+ * {@code synchronized}, código nativo ou inicialização de classes no caminho
+ * de processamento dos updates.
+ */
+public class MonitorPinning {
+
+    private static final Logger logger = Logger.getLogger(MonitorPinning.class.getName());
+
+    private static final String EVENTO_PINNING = "jdk.VirtualThreadPinned";
+    private static final int FRAMES_EXIBIDOS = 8;
+
+    private RecordingStream stream;
+
+    /**
+     * Inicia a captura dos eventos de pinning em segundo plano.
+     */
+    public synchronized void iniciar() {
+        if (stream != null) {
+            return;
+        }
+
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENTO_PINNING)
+                    .withThreshold(Config.App.LIMIAR_PINNING)
+                    .withStackTrace();
+            stream.onEvent(EVENTO_PINNING, this::registrar);
+            stream.startAsync();
+            logger.log(Level.INFO, "Monitor de pinning de virtual threads ativo");
+        } catch (RuntimeException e) {
+            // JFR pode estar indisponível no runtime; o bot segue sem o monitor
+            logger.log(Level.WARNING, "Não foi possível iniciar o monitor de pinning", e);
+            stream = null;
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        StringBuilder pilha = new StringBuilder();
+        if (evento.getStackTrace() != null) {
+            List<RecordedFrame> frames = evento.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(FRAMES_EXIBIDOS, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                pilha.append("\n    at ")
+                        .append(frame.getMethod().getType().getName())
+                        .append('.')
+                        .append(frame.getMethod().getName())
+                        .append(':')
+                        .append(frame.getLineNumber());
+            }
+        }
+
+        logger.log(Level.WARNING, "Virtual thread presa à carrier por {0} ms{1}",
+                new Object[] { evento.getDuration().toMillis(), pilha });
+    }
+
+    /**
+     * Encerra a captura dos eventos.
+     */
+    public synchronized void encerrar() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
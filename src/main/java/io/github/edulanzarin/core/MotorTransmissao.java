@@ -0,0 +1,274 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.Transmissao;
+import io.github.edulanzarin.services.FirebaseService;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Envia uma mesma mensagem a todos os usuários cadastrados.
+ *
+ * Os IDs são lidos do Firestore em páginas de
+ * {@code Config.Transmissao.TAMANHO_PAGINA} e enfileirados na
+ * {@link FilaEnvio}, que aplica os limites de taxa do Telegram. A página
+ * seguinte só é lida depois que todos os envios da atual terminam, o que
+ * limita a memória usada a uma página por transmissão.
+ *
+ * Ao fim de cada página o progresso (último ID e contadores) é salvo na
+ * coleção de transmissões. Após uma queda, {@link #retomarPendentes()}
+ * continua do último ponto salvo; no máximo uma página é reenviada.
+ *
+ * Com várias instâncias do bot, cada transmissão é executada por uma só: a
+ * instância a reivindica em uma transação antes de enviar, e cada progresso
+ * salvo renova a concessão por {@code Config.Transmissao.DURACAO_CONCESSAO}.
+ * Se o progresso não puder ser salvo (transmissão cancelada ou assumida por
+ * outra instância depois de a concessão vencer), a execução local para. As
+ * transmissões sem dono são procuradas a cada
+ * {@code Config.Transmissao.INTERVALO_RETOMADA}.
+ */
+public class MotorTransmissao {
+
+    private static final Logger logger = Logger.getLogger(MotorTransmissao.class.getName());
+
+    private final FilaEnvio filaEnvio;
+    private final ConcurrentHashMap<String, Execucao> execucoes = new ConcurrentHashMap<>();
+    // Identifica esta instância como dona das transmissões que executa
+    private final String instanciaId = UUID.randomUUID().toString();
+    private ScheduledExecutorService agendador;
+
+    public MotorTransmissao(FilaEnvio filaEnvio) {
+        this.filaEnvio = filaEnvio;
+    }
+
+    /**
+     * Cria uma transmissão e começa a enviá-la em segundo plano.
+     *
+     * @param texto Mensagem a ser enviada (HTML)
+     * @return ID da transmissão
+     * @throws FirebaseService.FirebaseOperationException se não for possível
+     *                                                    salvar a transmissão
+     */
+    public String iniciar(String texto) {
+        if (texto == null || texto.trim().isEmpty()) {
+            throw new IllegalArgumentException("Texto da transmissão é obrigatório");
+        }
+        if (texto.length() > Config.TelegramBot.MAX_MESSAGE_LENGTH) {
+            throw new IllegalArgumentException("Texto excede o tamanho máximo de mensagem");
+        }
+
+        Transmissao transmissao = new Transmissao(UUID.randomUUID().toString(), texto);
+        transmissao.setDonoId(instanciaId);
+        transmissao.setConcessaoAte(LocalDateTime.now().plus(Config.Transmissao.DURACAO_CONCESSAO));
+        FirebaseService.salvarTransmissao(transmissao);
+        executar(transmissao);
+        return transmissao.getId();
+    }
+
+    /**
+     * Agenda a retomada das transmissões interrompidas: a primeira busca logo
+     * após a inicialização e as demais a cada
+     * {@code Config.Transmissao.INTERVALO_RETOMADA}, para assumir também as
+     * transmissões de instâncias que pararam com a concessão ainda válida.
+     */
+    public synchronized void iniciarRetomada() {
+        if (agendador != null) {
+            return;
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retomada-transmissoes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                retomarPendentes();
+            } catch (RuntimeException e) {
+                // Não propaga: uma exceção cancelaria as próximas buscas agendadas
+                logger.log(Level.SEVERE, "Erro ao retomar transmissões", e);
+            }
+        }, 0, Config.Transmissao.INTERVALO_RETOMADA.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retoma as transmissões interrompidas que esta instância conseguir
+     * reivindicar, a partir do último progresso salvo.
+     *
+     * @return Quantidade de transmissões retomadas
+     */
+    public int retomarPendentes() {
+        int retomadas = 0;
+        for (Transmissao pendente : FirebaseService.listarTransmissoesEmAndamento()) {
+            if (execucoes.containsKey(pendente.getId())) {
+                continue;
+            }
+            Transmissao transmissao = FirebaseService.reivindicarTransmissao(
+                    pendente.getId(), instanciaId, Config.Transmissao.DURACAO_CONCESSAO);
+            if (transmissao != null && executar(transmissao)) {
+                logger.log(Level.INFO, "Retomando transmissão {0} após o usuário {1}",
+                        new Object[] { transmissao.getId(), transmissao.getUltimoUsuarioId() });
+                retomadas++;
+            }
+        }
+        return retomadas;
+    }
+
+    /**
+     * Cancela uma transmissão em andamento, nesta ou em outra instância; os
+     * envios já enfileirados são concluídos.
+     *
+     * @return false se a transmissão não estiver em andamento
+     * @throws FirebaseService.FirebaseOperationException se não for possível
+     *                                                    gravar o cancelamento
+     */
+    public boolean cancelar(String transmissaoId) {
+        boolean cancelada = FirebaseService.cancelarTransmissao(transmissaoId);
+        Execucao execucao = execucoes.get(transmissaoId);
+        if (execucao != null) {
+            execucao.cancelada = true;
+        }
+        return cancelada;
+    }
+
+    /**
+     * Para a retomada e interrompe as transmissões em execução sem alterar seu
+     * status, para que sejam retomadas quando a concessão vencer.
+     */
+    public void encerrar() {
+        synchronized (this) {
+            if (agendador != null) {
+                agendador.shutdownNow();
+            }
+        }
+        for (Execucao execucao : execucoes.values()) {
+            execucao.encerrando = true;
+        }
+    }
+
+    private boolean executar(Transmissao transmissao) {
+        Execucao execucao = new Execucao(transmissao);
+        if (execucoes.putIfAbsent(transmissao.getId(), execucao) != null) {
+            return false;
+        }
+
+        Thread thread = new Thread(() -> transmitir(execucao), "transmissao-" + transmissao.getId());
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void transmitir(Execucao execucao) {
+        Transmissao transmissao = execucao.transmissao;
+        int tamanhoPagina = Config.Transmissao.TAMANHO_PAGINA;
+        long inicio = System.nanoTime();
+        long processadas = 0;
+
+        try {
+            while (!execucao.cancelada && !execucao.encerrando) {
+                List<String> ids = FirebaseService.listarPaginaIdsUsuarios(
+                        transmissao.getUltimoUsuarioId(), tamanhoPagina);
+
+                filaEnvio.aguardarEspaco(tamanhoPagina);
+                List<CompletableFuture<Boolean>> envios = new ArrayList<>(ids.size());
+                for (String usuarioId : ids) {
+                    envios.add(enviar(usuarioId, transmissao.getTexto()));
+                }
+                CompletableFuture.allOf(envios.toArray(new CompletableFuture[0])).get();
+
+                long entregues = envios.stream().filter(CompletableFuture::join).count();
+                transmissao.setEnviadas(transmissao.getEnviadas() + entregues);
+                transmissao.setFalhas(transmissao.getFalhas() + ids.size() - entregues);
+                if (!ids.isEmpty()) {
+                    transmissao.setUltimoUsuarioId(ids.get(ids.size() - 1));
+                }
+                if (ids.size() < tamanhoPagina) {
+                    transmissao.setStatus(Transmissao.StatusTransmissao.CONCLUIDA);
+                }
+                if (!salvarProgresso(transmissao)) {
+                    logger.log(Level.WARNING, "Transmissão {0} cancelada ou assumida por outra instância; "
+                            + "execução local encerrada", transmissao.getId());
+                    return;
+                }
+
+                processadas += ids.size();
+                double segundos = Math.max(1, System.nanoTime() - inicio) / 1e9;
+                logger.log(Level.INFO, "Transmissão {0}: {1} usuários nesta execução ({2} msg/s), {3} enviadas, {4} falhas",
+                        new Object[] { transmissao.getId(), processadas, String.format("%.1f", processadas / segundos),
+                                transmissao.getEnviadas(), transmissao.getFalhas() });
+
+                if (transmissao.getStatus() == Transmissao.StatusTransmissao.CONCLUIDA) {
+                    break;
+                }
+            }
+
+            if (execucao.cancelada) {
+                // O status já foi gravado por FirebaseService.cancelarTransmissao
+                transmissao.setStatus(Transmissao.StatusTransmissao.CANCELADA);
+            }
+            logger.log(Level.INFO, "Transmissão {0} finalizada com status {1}",
+                    new Object[] { transmissao.getId(), transmissao.getStatus() });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Transmissão " + transmissao.getId()
+                    + " interrompida; será retomada do último progresso salvo", e);
+        } finally {
+            execucoes.remove(transmissao.getId());
+        }
+    }
+
+    /**
+     * Enfileira a mensagem para um usuário.
+     *
+     * @return Futuro com true se a mensagem foi entregue ao Telegram
+     */
+    private CompletableFuture<Boolean> enviar(String usuarioId, String texto) {
+        long chatId;
+        try {
+            chatId = Long.parseLong(usuarioId);
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "ID de usuário inválido na transmissão: {0}", usuarioId);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        SendMessage mensagem = new SendMessage();
+        mensagem.setChatId(String.valueOf(chatId));
+        mensagem.setText(texto);
+        mensagem.setParseMode("HTML");
+
+        return filaEnvio.enfileirar(chatId, mensagem).handle((enviada, erro) -> erro == null);
+    }
+
+    /**
+     * @return false se esta instância não é mais a dona da transmissão
+     */
+    private static boolean salvarProgresso(Transmissao transmissao) {
+        transmissao.setAtualizadaEm(LocalDateTime.now());
+        return FirebaseService.salvarProgressoTransmissao(transmissao, Config.Transmissao.DURACAO_CONCESSAO);
+    }
+
+    /**
+     * Transmissão em execução e seus sinais de parada.
+     */
+    private static final class Execucao {
+        private final Transmissao transmissao;
+        private volatile boolean cancelada; // Parada definitiva
+        private volatile boolean encerrando; // Parada para retomar depois da concessão
+
+        private Execucao(Transmissao transmissao) {
+            this.transmissao = transmissao;
+        }
+    }
+}
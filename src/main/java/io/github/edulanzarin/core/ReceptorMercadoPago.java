@@ -0,0 +1,459 @@
+package io.github.edulanzarin.core;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.services.FirebaseService;
+import io.github.edulanzarin.services.MercadoPagoService;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servidor HTTP embutido que recebe as notificações de pagamento do Mercado
+ * Pago e confirma os pagamentos aprovados.
+ *
+ * Cada notificação tem a assinatura do cabeçalho {@code x-signature}
+ * conferida (HMAC-SHA256 com o segredo do webhook), com o carimbo de tempo
+ * assinado a no máximo {@code Config.MercadoPago.TOLERANCIA_ASSINATURA} do
+ * relógio local, para que uma notificação capturada não possa ser reenviada
+ * depois de sair da janela de deduplicação. Ela é respondida com 200
+ * antes de qualquer consulta: a confirmação segue por um pool próprio, então
+ * rajadas de notificações não disputam threads com os updates do Telegram.
+ * Notificações repetidas são descartadas pelo ID dentro de uma janela de
+ * {@code Config.MercadoPago.JANELA_DEDUPLICACAO} IDs, e pagamentos já
+ * confirmados por esta instância não são consultados de novo.
+ *
+ * A confirmação lê o status do pagamento na API e, se aprovado, chama
+ * {@link FirebaseService#confirmarPagamento}, com até
+ * {@code Config.Pagamento.MAX_TENTATIVAS_CONFIRMACAO} tentativas separadas por
+ * {@code Config.Pagamento.INTERVALO_RETRY}. As tentativas cobrem também a
+ * notificação que chega antes de o pagamento ter sido gravado no Firestore.
+ * Com a fila de confirmação cheia, a notificação é recusada com 503 para que
+ * o Mercado Pago a reenvie mais tarde.
+ */
+public class ReceptorMercadoPago {
+
+    private static final Logger logger = Logger.getLogger(ReceptorMercadoPago.class.getName());
+
+    private static final String CABECALHO_ASSINATURA = "x-signature";
+    private static final String CABECALHO_REQUISICAO = "x-request-id";
+    private static final String TIPO_PAGAMENTO = "payment";
+    private static final String ALGORITMO_ASSINATURA = "HmacSHA256";
+    private static final int TEMPO_ENCERRAMENTO_SEGUNDOS = 5;
+
+    private final Bot bot;
+    private final int porta;
+    private final SecretKeySpec chave;
+    private final MercadoPagoService mercadoPago;
+
+    private final JanelaDeduplicacao notificacoesVistas = new JanelaDeduplicacao(
+            Config.MercadoPago.JANELA_DEDUPLICACAO);
+    private final JanelaDeduplicacao pagamentosConfirmados = new JanelaDeduplicacao(
+            Config.MercadoPago.JANELA_DEDUPLICACAO);
+
+    // Uma vaga por confirmação pendente, reservada antes de responder 200
+    private final Semaphore vagasConfirmacao = new Semaphore(Config.MercadoPago.CAPACIDADE_FILA_CONFIRMACAO);
+    private final AtomicLong recebidas = new AtomicLong();
+    private final AtomicLong duplicadas = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+    private final AtomicLong confirmados = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    private HttpServer servidor;
+    private ExecutorService executor;
+    private ScheduledExecutorService confirmador;
+
+    /**
+     * @param bot     Bot usado para avisar o usuário da assinatura ativada
+     * @param porta   Porta local do servidor
+     * @param segredo Chave secreta do webhook, definida no painel do Mercado Pago
+     */
+    public ReceptorMercadoPago(Bot bot, int porta, String segredo) {
+        if (segredo == null || segredo.trim().isEmpty()) {
+            throw new IllegalStateException("Segredo do webhook do Mercado Pago é obrigatório");
+        }
+
+        this.bot = bot;
+        this.porta = porta;
+        this.chave = new SecretKeySpec(segredo.trim().getBytes(StandardCharsets.UTF_8), ALGORITMO_ASSINATURA);
+        this.mercadoPago = MercadoPagoService.getInstance();
+    }
+
+    /**
+     * Inicia o servidor em {@code Config.MercadoPago.WEBHOOK_CAMINHO}.
+     *
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public void iniciar() throws IOException {
+        AtomicInteger contadorHttp = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Config.MercadoPago.WEBHOOK_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-mercadopago-" + contadorHttp.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger contadorConfirmacao = new AtomicInteger();
+        confirmador = Executors.newScheduledThreadPool(Config.MercadoPago.THREADS_CONFIRMACAO, runnable -> {
+            Thread thread = new Thread(runnable, "confirmacao-pagamento-" + contadorConfirmacao.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        servidor = HttpServer.create(new InetSocketAddress(porta), 0);
+        servidor.createContext(Config.MercadoPago.WEBHOOK_CAMINHO, this::tratar);
+        servidor.setExecutor(executor);
+        servidor.start();
+
+        logger.log(Level.INFO, "Notificações do Mercado Pago escutando na porta {0}{1}",
+                new Object[] { String.valueOf(porta), Config.MercadoPago.WEBHOOK_CAMINHO });
+    }
+
+    private void tratar(HttpExchange troca) throws IOException {
+        String pagamentoId;
+        try (troca) {
+            pagamentoId = validar(troca);
+            if (pagamentoId == null) {
+                return;
+            }
+            // Confirma antes de processar: o Mercado Pago só espera o 200
+            responder(troca, 200);
+        }
+
+        try {
+            confirmador.execute(() -> confirmar(pagamentoId, 1));
+        } catch (RejectedExecutionException e) {
+            // Encerramento em andamento
+            vagasConfirmacao.release();
+        }
+    }
+
+    /**
+     * Confere a notificação e decide se ela gera uma confirmação.
+     *
+     * @return ID do pagamento a confirmar ou null se a requisição já foi
+     *         respondida
+     */
+    private String validar(HttpExchange troca) throws IOException {
+        if (!"POST".equals(troca.getRequestMethod())) {
+            responder(troca, 405);
+            return null;
+        }
+
+        byte[] corpo = troca.getRequestBody().readNBytes(Config.MercadoPago.WEBHOOK_TAMANHO_MAXIMO + 1);
+        if (corpo.length > Config.MercadoPago.WEBHOOK_TAMANHO_MAXIMO) {
+            rejeitadas.incrementAndGet();
+            responder(troca, 413);
+            return null;
+        }
+
+        JsonObject notificacao;
+        try {
+            notificacao = JsonParser.parseString(new String(corpo, StandardCharsets.UTF_8)).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            rejeitadas.incrementAndGet();
+            responder(troca, 400);
+            return null;
+        }
+
+        Map<String, String> parametros = lerParametros(troca.getRequestURI().getRawQuery());
+        String tipo = parametros.getOrDefault("type", texto(notificacao.get("type")));
+        String pagamentoId = parametros.get("data.id");
+        if (pagamentoId == null && notificacao.get("data") instanceof JsonObject dados) {
+            pagamentoId = texto(dados.get("id"));
+        }
+
+        String requisicaoId = troca.getRequestHeaders().getFirst(CABECALHO_REQUISICAO);
+        if (!assinaturaValida(troca.getRequestHeaders().getFirst(CABECALHO_ASSINATURA), pagamentoId,
+                requisicaoId)) {
+            rejeitadas.incrementAndGet();
+            responder(troca, 401);
+            return null;
+        }
+
+        recebidas.incrementAndGet();
+        if (!TIPO_PAGAMENTO.equals(tipo) || pagamentoId == null) {
+            responder(troca, 200);
+            return null;
+        }
+
+        if (!vagasConfirmacao.tryAcquire()) {
+            // Sem registrar o ID: o reenvio do Mercado Pago deve ser processado
+            responder(troca, 503);
+            return null;
+        }
+
+        String notificacaoId = texto(notificacao.get("id"));
+        if (notificacaoId == null) {
+            notificacaoId = requisicaoId;
+        }
+        if ((notificacaoId != null && !notificacoesVistas.registrar(notificacaoId))
+                || pagamentosConfirmados.contem(pagamentoId)) {
+            vagasConfirmacao.release();
+            duplicadas.incrementAndGet();
+            responder(troca, 200);
+            return null;
+        }
+
+        return pagamentoId;
+    }
+
+    /**
+     * Confere o cabeçalho {@code x-signature} ("ts=...,v1=..."), calculado
+     * pelo Mercado Pago sobre "id:[data.id];request-id:[x-request-id];ts:[ts];".
+     * Partes ausentes da notificação ficam de fora do texto assinado. O
+     * {@code ts} precisa estar a até
+     * {@code Config.MercadoPago.TOLERANCIA_ASSINATURA} do relógio local.
+     */
+    private boolean assinaturaValida(String cabecalho, String pagamentoId, String requisicaoId) {
+        if (cabecalho == null) {
+            return false;
+        }
+
+        String ts = null;
+        String v1 = null;
+        for (String parte : cabecalho.split(",")) {
+            int igual = parte.indexOf('=');
+            if (igual < 0) {
+                continue;
+            }
+            String nome = parte.substring(0, igual).trim();
+            if (nome.equals("ts")) {
+                ts = parte.substring(igual + 1).trim();
+            } else if (nome.equals("v1")) {
+                v1 = parte.substring(igual + 1).trim();
+            }
+        }
+        if (ts == null || v1 == null || !carimboRecente(ts)) {
+            return false;
+        }
+
+        StringBuilder assinado = new StringBuilder();
+        if (pagamentoId != null) {
+            // IDs alfanuméricos são assinados em minúsculas
+            assinado.append("id:").append(pagamentoId.toLowerCase()).append(';');
+        }
+        if (requisicaoId != null) {
+            assinado.append("request-id:").append(requisicaoId).append(';');
+        }
+        assinado.append("ts:").append(ts).append(';');
+
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO_ASSINATURA);
+            mac.init(chave);
+            byte[] esperado = HexFormat.of()
+                    .formatHex(mac.doFinal(assinado.toString().getBytes(StandardCharsets.UTF_8)))
+                    .getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(esperado, v1.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            logger.log(Level.SEVERE, "Erro ao calcular a assinatura da notificação", e);
+            return false;
+        }
+    }
+
+    /**
+     * @param ts Carimbo de tempo do {@code x-signature}, em segundos ou
+     *           milissegundos desde a época
+     */
+    private static boolean carimboRecente(String ts) {
+        long valor;
+        try {
+            valor = Long.parseLong(ts);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        // Abaixo de 10^11 só pode estar em segundos (10^11 ms é março de 1973)
+        Instant carimbo = valor < 100_000_000_000L ? Instant.ofEpochSecond(valor) : Instant.ofEpochMilli(valor);
+        return Duration.between(carimbo, Instant.now()).abs()
+                .compareTo(Config.MercadoPago.TOLERANCIA_ASSINATURA) <= 0;
+    }
+
+    /**
+     * Consulta o pagamento e confirma se estiver aprovado, reagendando a
+     * tentativa em caso de falha.
+     */
+    private void confirmar(String pagamentoId, int tentativa) {
+        String falha;
+        try {
+            MercadoPagoService.SituacaoPagamento situacao = mercadoPago.consultarPagamentoAsync(pagamentoId).get();
+            if (!situacao.isAprovado()) {
+                logger.log(Level.FINE, "Pagamento {0} com status {1}; nada a confirmar",
+                        new Object[] { pagamentoId, situacao.getStatus() });
+                vagasConfirmacao.release();
+                return;
+            }
+
+            if (FirebaseService.confirmarPagamento(pagamentoId)) {
+                boolean primeiraConfirmacao = pagamentosConfirmados.registrar(pagamentoId);
+                confirmados.incrementAndGet();
+                vagasConfirmacao.release();
+                if (primeiraConfirmacao) {
+                    avisarUsuario(situacao.getUsuarioId());
+                }
+                return;
+            }
+            falha = "pagamento não confirmado";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            vagasConfirmacao.release();
+            return;
+        } catch (ExecutionException e) {
+            falha = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        } catch (RuntimeException e) {
+            falha = e.getMessage();
+        }
+
+        if (tentativa < Config.Pagamento.MAX_TENTATIVAS_CONFIRMACAO && !confirmador.isShutdown()) {
+            logger.log(Level.WARNING, "Tentativa {0} de confirmar o pagamento {1} falhou ({2})",
+                    new Object[] { tentativa, pagamentoId, falha });
+            confirmador.schedule(() -> confirmar(pagamentoId, tentativa + 1),
+                    Config.Pagamento.INTERVALO_RETRY.toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        falhas.incrementAndGet();
+        vagasConfirmacao.release();
+        logger.log(Level.SEVERE, "Pagamento {0} não confirmado após {1} tentativa(s): {2}",
+                new Object[] { pagamentoId, tentativa, falha });
+    }
+
+    private void avisarUsuario(String usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        try {
+            long chatId = Long.parseLong(usuarioId);
+            bot.getFilaEnvio().enfileirar(chatId, new SendMessage(usuarioId, Config.Mensagens.SUCESSO_ASSINATURA));
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Usuário inválido na referência do pagamento: {0}", usuarioId);
+        }
+    }
+
+    private static Map<String, String> lerParametros(String consulta) {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.putIfAbsent(
+                        URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    private static String texto(JsonElement elemento) {
+        return elemento != null && elemento.isJsonPrimitive() ? elemento.getAsString() : null;
+    }
+
+    private static void responder(HttpExchange troca, int status) throws IOException {
+        troca.sendResponseHeaders(status, -1);
+    }
+
+    public long getRecebidas() {
+        return recebidas.get();
+    }
+
+    public long getDuplicadas() {
+        return duplicadas.get();
+    }
+
+    public long getRejeitadas() {
+        return rejeitadas.get();
+    }
+
+    public long getConfirmados() {
+        return confirmados.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    public int getPendentes() {
+        return Config.MercadoPago.CAPACIDADE_FILA_CONFIRMACAO - vagasConfirmacao.availablePermits();
+    }
+
+    /**
+     * Para de aceitar notificações e aguarda as confirmações em andamento.
+     */
+    public void encerrar() {
+        if (servidor == null) {
+            return;
+        }
+        servidor.stop(TEMPO_ENCERRAMENTO_SEGUNDOS);
+        executor.shutdown();
+        confirmador.shutdown();
+        try {
+            if (!confirmador.awaitTermination(TEMPO_ENCERRAMENTO_SEGUNDOS, TimeUnit.SECONDS)) {
+                logger.log(Level.WARNING, "{0} confirmação(ões) de pagamento pendente(s) no encerramento",
+                        getPendentes());
+                confirmador.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            confirmador.shutdownNow();
+        }
+        logger.log(Level.INFO, "Notificações do Mercado Pago: {0} recebidas, {1} duplicadas, {2} rejeitadas, "
+                + "{3} confirmados, {4} falhas",
+                new Object[] { recebidas.get(), duplicadas.get(), rejeitadas.get(), confirmados.get(), falhas.get() });
+    }
+
+    /**
+     * Conjunto limitado de IDs recentes; ao atingir o limite, o mais antigo é
+     * esquecido.
+     */
+    private static final class JanelaDeduplicacao {
+        private final Map<String, Boolean> ids;
+
+        JanelaDeduplicacao(int limite) {
+            this.ids = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> maisAntigo) {
+                    return size() > limite;
+                }
+            };
+        }
+
+        /**
+         * @return true se o ID ainda não estava na janela
+         */
+        synchronized boolean registrar(String id) {
+            return ids.put(id, Boolean.TRUE) == null;
+        }
+
+        synchronized boolean contem(String id) {
+            return ids.containsKey(id);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.edulanzarin.core;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.edulanzarin.config.Config;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor HTTP embutido que recebe os updates enviados pelo Telegram no modo
+ * {@link ModoRecebimento#WEBHOOK}.
+ *
+ * Cada requisição tem o cabeçalho {@code X-Telegram-Bot-Api-Secret-Token}
+ * conferido, o corpo convertido em {@link Update} e é respondida com 200
+ * antes do processamento, que segue pelo {@link DespachadorAtualizacoes} do
+ * bot. Como não há estado local de recebimento, várias instâncias podem
+ * atender o mesmo webhook atrás de um balanceador.
+ *
+ * O JSON é lido com o ObjectMapper do Jackson, a mesma biblioteca usada pelo
+ * telegrambots: os modelos da API dependem das anotações do Jackson para os
+ * nomes dos campos e para os tipos polimórficos.
+ */
+public class ReceptorWebhook {
+
+    private static final Logger logger = Logger.getLogger(ReceptorWebhook.class.getName());
+
+    private static final String CABECALHO_SEGREDO = "X-Telegram-Bot-Api-Secret-Token";
+    private static final Pattern SEGREDO_VALIDO = Pattern.compile("[A-Za-z0-9_-]{1,256}");
+    private static final int TEMPO_ENCERRAMENTO_SEGUNDOS = 5;
+
+    private final Bot bot;
+    private final int porta;
+    private final byte[] segredo;
+    private final ObjectMapper mapper;
+
+    private final AtomicLong recebidos = new AtomicLong();
+    private final AtomicLong rejeitados = new AtomicLong();
+
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    /**
+     * @param bot     Bot que processará os updates
+     * @param porta   Porta local do servidor
+     * @param segredo Valor esperado no cabeçalho de segredo (A-Z, a-z, 0-9, _ e -)
+     */
+    public ReceptorWebhook(Bot bot, int porta, String segredo) {
+        if (segredo == null || !SEGREDO_VALIDO.matcher(segredo).matches()) {
+            throw new IllegalStateException(
+                    "Segredo do webhook deve ter de 1 a 256 caracteres entre A-Z, a-z, 0-9, _ e -");
+        }
+
+        this.bot = bot;
+        this.porta = porta;
+        this.segredo = segredo.getBytes(StandardCharsets.UTF_8);
+        this.mapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Inicia o servidor em {@code Config.TelegramBot.WEBHOOK_CAMINHO}.
+     *
+     * @throws IOException se a porta não puder ser aberta
+     */
+    public void iniciar() throws IOException {
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Config.TelegramBot.WEBHOOK_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        servidor = HttpServer.create(new InetSocketAddress(porta), 0);
+        servidor.createContext(Config.TelegramBot.WEBHOOK_CAMINHO, this::tratar);
+        servidor.setExecutor(executor);
+        servidor.start();
+
+        logger.log(Level.INFO, "Webhook escutando na porta {0}{1}",
+                new Object[] { String.valueOf(porta), Config.TelegramBot.WEBHOOK_CAMINHO });
+    }
+
+    private void tratar(HttpExchange troca) throws IOException {
+        Update update;
+        try (troca) {
+            update = validar(troca);
+            if (update == null) {
+                return;
+            }
+            // Confirma antes de processar: o Telegram não espera pelo bot
+            responder(troca, 200);
+        }
+
+        recebidos.incrementAndGet();
+        bot.onUpdateReceived(update);
+    }
+
+    /**
+     * Confere a requisição e converte o corpo em Update.
+     *
+     * @return Update recebido ou null se a requisição já foi respondida com erro
+     */
+    private Update validar(HttpExchange troca) throws IOException {
+        if (!"POST".equals(troca.getRequestMethod())) {
+            responder(troca, 405);
+            return null;
+        }
+
+        String recebido = troca.getRequestHeaders().getFirst(CABECALHO_SEGREDO);
+        if (recebido == null
+                || !MessageDigest.isEqual(segredo, recebido.getBytes(StandardCharsets.UTF_8))) {
+            rejeitados.incrementAndGet();
+            responder(troca, 401);
+            return null;
+        }
+
+        byte[] corpo = lerCorpo(troca.getRequestBody());
+        if (corpo == null) {
+            rejeitados.incrementAndGet();
+            responder(troca, 413);
+            return null;
+        }
+
+        try {
+            return mapper.readValue(corpo, Update.class);
+        } catch (IOException e) {
+            rejeitados.incrementAndGet();
+            logger.log(Level.WARNING, "Update inválido recebido no webhook: {0}", e.getMessage());
+            responder(troca, 400);
+            return null;
+        }
+    }
+
+    /**
+     * Lê o corpo da requisição.
+     *
+     * @return Bytes lidos ou null se exceder o tamanho máximo
+     */
+    private static byte[] lerCorpo(InputStream entrada) throws IOException {
+        byte[] corpo = entrada.readNBytes(Config.TelegramBot.WEBHOOK_TAMANHO_MAXIMO + 1);
+        return corpo.length > Config.TelegramBot.WEBHOOK_TAMANHO_MAXIMO ? null : corpo;
+    }
+
+    private static void responder(HttpExchange troca, int status) throws IOException {
+        troca.sendResponseHeaders(status, -1);
+    }
+
+    public long getRecebidos() {
+        return recebidos.get();
+    }
+
+    public long getRejeitados() {
+        return rejeitados.get();
+    }
+
+    /**
+     * Para de aceitar requisições, aguardando as que estão em andamento.
+     */
+    public void encerrar() {
+        if (servidor != null) {
+            servidor.stop(TEMPO_ENCERRAMENTO_SEGUNDOS);
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.edulanzarin.core;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.Assinatura;
+import io.github.edulanzarin.services.FirebaseService;
+import io.github.edulanzarin.utils.Respostas;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Verificação periódica do término das assinaturas.
+ *
+ * A cada {@code Config.Assinatura.INTERVALO_VERIFICACAO_EXPIRACAO}, percorre
+ * as assinaturas ativas que terminam em até
+ * {@code Config.Assinatura.DIAS_AVISO_EXPIRACAO} dias com uma consulta por
+ * intervalo de {@code dataFim}, paginada por cursor em páginas de
+ * {@code Config.Assinatura.TAMANHO_PAGINA_VERIFICACAO}. Em cada página:
+ * - assinaturas vencidas há mais que {@code Config.Assinatura.PERIODO_GRACA}
+ * são desativadas em escritas em lote;
+ * - assinaturas que ainda não venceram e não foram avisadas recebem o aviso de
+ * expiração pela {@link FilaEnvio}, e o envio é registrado na assinatura.
+ *
+ * A página seguinte só é lida depois que os avisos da atual terminam, então a
+ * memória usada é de uma página, independente do total de assinaturas.
+ */
+public class VerificadorAssinaturas {
+
+    private static final Logger logger = Logger.getLogger(VerificadorAssinaturas.class.getName());
+
+    private final FilaEnvio filaEnvio;
+    private final Respostas respostas;
+    private ScheduledExecutorService agendador;
+
+    public VerificadorAssinaturas(FilaEnvio filaEnvio) {
+        this.filaEnvio = filaEnvio;
+        this.respostas = Respostas.getInstance();
+    }
+
+    /**
+     * Agenda a verificação: a primeira logo após a inicialização e as demais a
+     * cada {@code Config.Assinatura.INTERVALO_VERIFICACAO_EXPIRACAO} após o
+     * término da anterior.
+     */
+    public synchronized void iniciar() {
+        if (agendador != null) {
+            return;
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "verificador-assinaturas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::executar, 0,
+                Config.Assinatura.INTERVALO_VERIFICACAO_EXPIRACAO.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void executar() {
+        try {
+            verificar(LocalDate.now());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            // Não propaga: uma exceção cancelaria as próximas execuções agendadas
+            logger.log(Level.SEVERE, "Verificação de assinaturas interrompida; será refeita no próximo ciclo", e);
+        }
+    }
+
+    /**
+     * Percorre as assinaturas que terminam até {@code hoje} mais os dias de
+     * aviso.
+     */
+    private void verificar(LocalDate hoje) throws InterruptedException, ExecutionException {
+        LocalDate limiteGraca = hoje.minusDays(Config.Assinatura.PERIODO_GRACA.toDays());
+        LocalDate limiteAviso = hoje.plusDays(Config.Assinatura.DIAS_AVISO_EXPIRACAO + 1L);
+        int tamanhoPagina = Config.Assinatura.TAMANHO_PAGINA_VERIFICACAO;
+        long inicio = System.nanoTime();
+        long lidas = 0;
+        long desativadas = 0;
+        long avisadas = 0;
+
+        Assinatura ultima = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Assinatura> pagina = FirebaseService.listarPaginaAssinaturasAtivasAte(
+                    limiteAviso, ultima, tamanhoPagina);
+
+            List<String> vencidas = new ArrayList<>();
+            List<Assinatura> aAvisar = new ArrayList<>();
+            for (Assinatura assinatura : pagina) {
+                if (assinatura.getDataFim().isBefore(limiteGraca)) {
+                    vencidas.add(assinatura.getId());
+                } else if (!assinatura.getDataFim().isBefore(hoje) && !assinatura.isAvisoExpiracaoEnviado()) {
+                    aAvisar.add(assinatura);
+                }
+            }
+
+            if (!vencidas.isEmpty()) {
+                FirebaseService.desativarAssinaturas(vencidas);
+                desativadas += vencidas.size();
+            }
+            if (!aAvisar.isEmpty()) {
+                avisadas += avisar(aAvisar);
+            }
+
+            lidas += pagina.size();
+            if (pagina.size() < tamanhoPagina) {
+                break;
+            }
+            ultima = pagina.get(pagina.size() - 1);
+        }
+
+        logger.log(Level.INFO, "Verificação de assinaturas: {0} lidas, {1} desativadas, {2} avisadas em {3}ms",
+                new Object[] { lidas, desativadas, avisadas,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) });
+    }
+
+    /**
+     * Enfileira os avisos da página, aguarda os envios e registra os entregues.
+     *
+     * @return Quantidade de avisos entregues
+     */
+    private int avisar(List<Assinatura> assinaturas) throws InterruptedException, ExecutionException {
+        filaEnvio.aguardarEspaco(assinaturas.size());
+
+        List<CompletableFuture<Boolean>> envios = new ArrayList<>(assinaturas.size());
+        for (Assinatura assinatura : assinaturas) {
+            envios.add(enviarAviso(assinatura));
+        }
+        CompletableFuture.allOf(envios.toArray(new CompletableFuture[0])).get();
+
+        List<String> entregues = new ArrayList<>(assinaturas.size());
+        for (int i = 0; i < assinaturas.size(); i++) {
+            if (envios.get(i).join()) {
+                entregues.add(assinaturas.get(i).getId());
+            }
+        }
+        FirebaseService.marcarAvisosExpiracao(entregues);
+        return entregues.size();
+    }
+
+    /**
+     * @return Futuro com true se o aviso foi entregue ao Telegram
+     */
+    private CompletableFuture<Boolean> enviarAviso(Assinatura assinatura) {
+        long chatId;
+        try {
+            chatId = Long.parseLong(assinatura.getUsuarioId());
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Usuário inválido na assinatura {0}", assinatura.getId());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        SendMessage mensagem = new SendMessage();
+        mensagem.setChatId(String.valueOf(chatId));
+        mensagem.setText(respostas.avisoExpiracao(assinatura));
+        mensagem.setParseMode("HTML");
+
+        return filaEnvio.enfileirar(chatId, mensagem).handle((enviada, erro) -> erro == null);
+    }
+
+    /**
+     * Cancela as próximas verificações e interrompe a que estiver em
+     * andamento; ela é refeita por completo no próximo início.
+     */
+    public synchronized void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+}
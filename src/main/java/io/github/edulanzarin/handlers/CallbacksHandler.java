@@ -0,0 +1,140 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.core.Bot;
+import io.github.edulanzarin.models.Evento;
+import io.github.edulanzarin.models.Pagamento;
+import io.github.edulanzarin.models.TipoPlano;
+import io.github.edulanzarin.services.ColetorEventos;
+import io.github.edulanzarin.services.FirebaseService;
+import io.github.edulanzarin.services.MercadoPagoService;
+import io.github.edulanzarin.utils.CodecCallback;
+import io.github.edulanzarin.utils.Respostas;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trata os cliques nos botões inline.
+ *
+ * O tratamento tem duas etapas:
+ * - {@link #confirmarRecebimento}: chamada na chegada do update, responde o
+ * AnswerCallbackQuery de forma assíncrona (encerrando o indicador de carga no
+ * cliente) e registra o evento pelo coletor, sem bloquear;
+ * - {@link #processar}: executada pelo despachante, na fila do chat, faz o
+ * trabalho da ação (consultas, criação de pagamento e resposta ao usuário).
+ */
+public class CallbacksHandler {
+    private final Bot bot;
+    private final RespostasHandler respostasHandler;
+    private final Respostas respostas;
+    private final MercadoPagoService mercadoPago;
+    // Cobranças em geração, por "usuarioId:PLANO"
+    private final Set<String> cobrancasEmAndamento = ConcurrentHashMap.newKeySet();
+
+    public CallbacksHandler(Bot bot) {
+        this.bot = bot;
+        this.respostasHandler = new RespostasHandler(bot);
+        this.respostas = Respostas.getInstance();
+        this.mercadoPago = MercadoPagoService.getInstance();
+    }
+
+    public void confirmarRecebimento(CallbackQuery callback) {
+        AnswerCallbackQuery resposta = AnswerCallbackQuery.builder()
+                .callbackQueryId(callback.getId())
+                .build();
+        try {
+            bot.executeAsync(resposta)
+                    .orTimeout(Config.TelegramBot.CALLBACK_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((ok, erro) -> {
+                        if (erro != null) {
+                            System.err.println("[ERRO] Ao responder callback " + callback.getId() + ": "
+                                    + erro.getMessage());
+                        }
+                    });
+        } catch (TelegramApiException e) {
+            System.err.println("[ERRO] Ao responder callback " + callback.getId() + ": " + e.getMessage());
+        }
+
+        registrarEvento(callback);
+    }
+
+    public void processar(CallbackQuery callback) {
+        long chatId = chatDo(callback);
+        CodecCallback.Dados dados = CodecCallback.decodificar(callback.getData());
+        if (dados == null) {
+            respostasHandler.enviarRespostaGenerica(chatId);
+            return;
+        }
+
+        switch (dados.getAcao()) {
+            case ESCOLHER_PLANO -> escolherPlano(chatId, String.valueOf(callback.getFrom().getId()), dados.getPlano());
+        }
+    }
+
+    /**
+     * Confirma o plano escolhido e gera a cobrança PIX. A chamada ao Mercado
+     * Pago e a gravação do pagamento são assíncronas, então o despachante não
+     * fica parado esperando a API; o código PIX é enviado quando tudo concluir.
+     * Cliques repetidos no mesmo plano enquanto a cobrança está sendo gerada
+     * são ignorados.
+     */
+    private void escolherPlano(long chatId, String usuarioId, TipoPlano plano) {
+        if (plano == null) {
+            respostasHandler.enviarRespostaGenerica(chatId);
+            return;
+        }
+        String chave = usuarioId + ":" + plano.name();
+        if (!cobrancasEmAndamento.add(chave)) {
+            return;
+        }
+        respostasHandler.enviarResposta(chatId, respostas.planoSelecionado(plano));
+
+        mercadoPago.criarCobrancaPixAsync(usuarioId, plano)
+                .thenCompose(cobranca -> FirebaseService
+                        .criarPagamentoAsync(new Pagamento(cobranca.getPagamentoId(), usuarioId, plano))
+                        .thenApply(id -> cobranca))
+                .whenComplete((cobranca, erro) -> {
+                    cobrancasEmAndamento.remove(chave);
+                    if (erro != null) {
+                        System.err.println("[ERRO] Ao gerar PIX do plano " + plano + " para " + usuarioId + ": "
+                                + erro.getMessage());
+                        respostasHandler.enviarResposta(chatId, Config.Mensagens.ERRO_GENERICO);
+                        return;
+                    }
+                    respostasHandler.enviarResposta(chatId, respostas.pixGerado(plano, cobranca.getQrCode()));
+                });
+    }
+
+    /**
+     * Chat onde o botão foi clicado; sem a mensagem original, o chat privado
+     * com o usuário.
+     */
+    public static long chatDo(CallbackQuery callback) {
+        return callback.getMessage() != null
+                ? callback.getMessage().getChatId()
+                : callback.getFrom().getId();
+    }
+
+    private void registrarEvento(CallbackQuery callback) {
+        try {
+            CodecCallback.Dados dados = CodecCallback.decodificar(callback.getData());
+
+            Evento evento = new Evento();
+            evento.setId(UUID.randomUUID().toString());
+            evento.setUsuarioId(String.valueOf(callback.getFrom().getId()));
+            evento.setDataHora(LocalDateTime.now());
+            evento.setTipoEvento("callback:" + (dados != null ? dados.getAcao().name().toLowerCase() : "desconhecido"));
+
+            ColetorEventos.getInstance().registrar(evento);
+        } catch (Exception e) {
+            System.err.println("[ERRO] Falha no registro: " + e.getMessage());
+        }
+    }
+}
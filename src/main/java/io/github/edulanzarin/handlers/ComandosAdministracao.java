@@ -0,0 +1,84 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.core.MotorTransmissao;
+import io.github.edulanzarin.models.Usuario;
+import io.github.edulanzarin.services.FirebaseService;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Comandos restritos aos administradores: /transmitir e
+ * /cancelar_transmissao.
+ *
+ * Os administradores são os IDs de usuário listados em
+ * {@code Config.TelegramBot.ENV_ADMINS}; sem a variável, ninguém pode usar
+ * estes comandos. Os demais usuários recebem
+ * {@code Config.Mensagens.ERRO_ACESSO_NEGADO}.
+ */
+public class ComandosAdministracao implements ModuloComandos {
+    private final MotorTransmissao motorTransmissao;
+    private final Set<String> administradores;
+
+    public ComandosAdministracao(MotorTransmissao motorTransmissao) {
+        this.motorTransmissao = motorTransmissao;
+        this.administradores = administradoresDoAmbiente();
+    }
+
+    @Override
+    public void registrar(RegistroComandos registro) {
+        registro.registrar("transmitir", (usuario, texto) -> restrito(usuario, () -> transmitir(texto)));
+        registro.registrar("cancelar_transmissao", (usuario, id) -> restrito(usuario, () -> cancelar(id)));
+    }
+
+    private Resposta restrito(Usuario usuario, Supplier<Resposta> comando) {
+        if (usuario == null || !administradores.contains(usuario.getId())) {
+            return Resposta.texto(Config.Mensagens.ERRO_ACESSO_NEGADO);
+        }
+        return comando.get();
+    }
+
+    private Resposta transmitir(String texto) {
+        if (texto.isEmpty()) {
+            return Resposta.texto(Config.Mensagens.USO_TRANSMITIR);
+        }
+        try {
+            String id = motorTransmissao.iniciar(texto);
+            return Resposta.texto(String.format(Config.Mensagens.TRANSMISSAO_INICIADA, id));
+        } catch (IllegalArgumentException e) {
+            return Resposta.texto(e.getMessage());
+        } catch (FirebaseService.FirebaseOperationException e) {
+            System.err.println("[ERRO] Ao iniciar transmissão: " + e.getMessage());
+            return Resposta.texto(Config.Mensagens.ERRO_GENERICO);
+        }
+    }
+
+    private Resposta cancelar(String id) {
+        if (id.isEmpty()) {
+            return Resposta.texto(Config.Mensagens.USO_CANCELAR_TRANSMISSAO);
+        }
+        try {
+            return Resposta.texto(String.format(motorTransmissao.cancelar(id)
+                    ? Config.Mensagens.TRANSMISSAO_CANCELADA
+                    : Config.Mensagens.TRANSMISSAO_NAO_ENCONTRADA, id));
+        } catch (FirebaseService.FirebaseOperationException e) {
+            System.err.println("[ERRO] Ao cancelar transmissão " + id + ": " + e.getMessage());
+            return Resposta.texto(Config.Mensagens.ERRO_GENERICO);
+        }
+    }
+
+    private static Set<String> administradoresDoAmbiente() {
+        Set<String> ids = new HashSet<>();
+        String valor = System.getProperty(Config.TelegramBot.ENV_ADMINS);
+        if (valor != null) {
+            for (String id : valor.split(",")) {
+                if (!id.trim().isEmpty()) {
+                    ids.add(id.trim());
+                }
+            }
+        }
+        return ids;
+    }
+}
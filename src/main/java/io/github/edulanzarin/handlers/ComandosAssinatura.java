@@ -0,0 +1,19 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.utils.Respostas;
+
+/**
+ * Comandos da assinatura do usuário: /assinatura.
+ */
+public class ComandosAssinatura implements ModuloComandos {
+    private final Respostas respostas;
+
+    public ComandosAssinatura(Respostas respostas) {
+        this.respostas = respostas;
+    }
+
+    @Override
+    public void registrar(RegistroComandos registro) {
+        registro.registrar("assinatura", (usuario, argumentos) -> Resposta.texto(respostas.comandoAssinatura()));
+    }
+}
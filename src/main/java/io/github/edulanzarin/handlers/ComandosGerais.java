@@ -0,0 +1,39 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.models.TipoPlano;
+import io.github.edulanzarin.models.Usuario;
+import io.github.edulanzarin.utils.Respostas;
+import io.github.edulanzarin.utils.TecladosPlanos;
+
+/**
+ * Comandos básicos: /start e /help.
+ *
+ * O /start com payload (deep link t.me/bot?start=payload) leva à oferta de
+ * planos: "plano_mensal" oferece o plano indicado e qualquer outro payload
+ * oferece todos. Os textos vêm do cache de mensagens e os teclados são
+ * pré-montados, sem acesso ao Firestore.
+ */
+public class ComandosGerais implements ModuloComandos {
+    private final Respostas respostas;
+
+    public ComandosGerais(Respostas respostas) {
+        this.respostas = respostas;
+    }
+
+    @Override
+    public void registrar(RegistroComandos registro) {
+        registro.registrar("start", this::start);
+        registro.registrar("help", (usuario, argumentos) -> Resposta.texto(respostas.comandoHelp()));
+    }
+
+    private Resposta start(Usuario usuario, String payload) {
+        if (payload.isEmpty()) {
+            return Resposta.texto(respostas.comandoStart(usuario));
+        }
+
+        TipoPlano plano = TecladosPlanos.planoDoPayload(payload);
+        return Resposta.comTeclado(
+                respostas.botoesPlanos(),
+                plano != null ? TecladosPlanos.doPlano(plano) : TecladosPlanos.todos());
+    }
+}
@@ -3,13 +3,15 @@ package io.github.edulanzarin.handlers;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import io.github.edulanzarin.core.Bot;
 
+import java.util.List;
+
 public class ComandosHandler {
     private final MensagensHandler mensagensHandler;
     private final RespostasHandler respostasHandler;
 
     public ComandosHandler(Bot bot) {
         this.respostasHandler = new RespostasHandler(bot);
-        this.mensagensHandler = new MensagensHandler();
+        this.mensagensHandler = new MensagensHandler(bot.getBotUsername(), bot.getMotorTransmissao());
     }
 
     public void processarMensagemRecebida(Message mensagem) {
@@ -18,4 +20,8 @@ public class ComandosHandler {
         }
         mensagensHandler.processar(mensagem, respostasHandler);
     }
+
+    public void prepararLote(List<Message> mensagens) {
+        mensagensHandler.registrarUsuarios(mensagens);
+    }
 }
\ No newline at end of file
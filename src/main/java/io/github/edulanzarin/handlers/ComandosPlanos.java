@@ -0,0 +1,22 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.utils.Respostas;
+import io.github.edulanzarin.utils.TecladosPlanos;
+
+/**
+ * Comandos de oferta dos planos: /planos.
+ */
+public class ComandosPlanos implements ModuloComandos {
+    private final Respostas respostas;
+
+    public ComandosPlanos(Respostas respostas) {
+        this.respostas = respostas;
+    }
+
+    @Override
+    public void registrar(RegistroComandos registro) {
+        registro.registrar("planos", (usuario, argumentos) -> Resposta.comTeclado(
+                respostas.botoesPlanos(),
+                TecladosPlanos.todos()));
+    }
+}
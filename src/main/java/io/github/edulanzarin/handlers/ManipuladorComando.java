@@ -0,0 +1,18 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.models.Usuario;
+
+/**
+ * Trata um comando registrado no {@link RegistroComandos}.
+ */
+@FunctionalInterface
+public interface ManipuladorComando {
+
+    /**
+     * @param usuario    Usuário que enviou o comando
+     * @param argumentos Texto após o comando, sem espaços nas pontas ("" se
+     *                   não houver)
+     * @return Resposta a ser enviada
+     */
+    Resposta executar(Usuario usuario, String argumentos);
+}
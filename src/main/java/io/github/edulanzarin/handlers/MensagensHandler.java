@@ -1,18 +1,22 @@
 package io.github.edulanzarin.handlers;
 
+import io.github.edulanzarin.core.MotorTransmissao;
 import io.github.edulanzarin.models.Evento;
 import io.github.edulanzarin.models.Usuario;
-import io.github.edulanzarin.services.FirebaseService;
+import io.github.edulanzarin.services.CacheUsuarios;
+import io.github.edulanzarin.services.ColetorEventos;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class MensagensHandler {
     private final ProcessamentoComandosHandler comandosHandler;
 
-    public MensagensHandler() {
-        this.comandosHandler = new ProcessamentoComandosHandler();
+    public MensagensHandler(String botUsername, MotorTransmissao motorTransmissao) {
+        this.comandosHandler = new ProcessamentoComandosHandler(botUsername, motorTransmissao);
     }
 
     public void processar(Message mensagem, RespostasHandler respostasHandler) {
@@ -23,13 +27,35 @@ public class MensagensHandler {
         registrarDados(usuario, texto);
 
         if (texto != null && texto.startsWith("/")) {
-            String resposta = comandosHandler.processarComando(texto, usuario);
-            respostasHandler.enviarResposta(chatId, resposta);
+            Resposta resposta = comandosHandler.processarComando(texto, usuario);
+            if (resposta != null) {
+                respostasHandler.enviarResposta(chatId, resposta);
+            }
         } else {
             respostasHandler.enviarRespostaGenerica(chatId);
         }
     }
 
+    /**
+     * Cadastra de uma vez os autores de um lote de mensagens, para que o
+     * processamento individual de cada mensagem encontre o usuário em cache.
+     */
+    public void registrarUsuarios(List<Message> mensagens) {
+        List<Usuario> usuarios = new ArrayList<>(mensagens.size());
+        for (Message mensagem : mensagens) {
+            if (mensagem.getFrom() != null) {
+                usuarios.add(criarUsuario(mensagem));
+            }
+        }
+
+        try {
+            CacheUsuarios.getInstance().verificarECadastrarLote(usuarios);
+        } catch (Exception e) {
+            // Cada mensagem ainda verifica seu usuário individualmente
+            System.err.println("[ERRO] Falha no registro em lote: " + e.getMessage());
+        }
+    }
+
     private Usuario criarUsuario(Message mensagem) {
         return new Usuario(
                 String.valueOf(mensagem.getFrom().getId()),
@@ -39,7 +65,7 @@ public class MensagensHandler {
 
     private void registrarDados(Usuario usuario, String tipoEvento) {
         try {
-            FirebaseService.verificarECadastrarUsuario(usuario);
+            CacheUsuarios.getInstance().verificarECadastrar(usuario);
 
             Evento evento = new Evento();
             evento.setId(UUID.randomUUID().toString());
@@ -47,7 +73,7 @@ public class MensagensHandler {
             evento.setDataHora(LocalDateTime.now());
             evento.setTipoEvento(tipoEvento != null && tipoEvento.startsWith("/") ? tipoEvento : "mensagem");
 
-            FirebaseService.registrarEvento(evento);
+            ColetorEventos.getInstance().registrar(evento);
         } catch (Exception e) {
             System.err.println("[ERRO] Falha no registro: " + e.getMessage());
         }
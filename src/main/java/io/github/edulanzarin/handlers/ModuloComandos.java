@@ -0,0 +1,11 @@
+package io.github.edulanzarin.handlers;
+
+/**
+ * Conjunto de comandos relacionados que se registra no
+ * {@link RegistroComandos}. Novos comandos entram por um novo módulo, sem
+ * alterar o roteamento.
+ */
+public interface ModuloComandos {
+
+    void registrar(RegistroComandos registro);
+}
@@ -1,20 +1,29 @@
 package io.github.edulanzarin.handlers;
 
+import io.github.edulanzarin.core.MotorTransmissao;
 import io.github.edulanzarin.models.Usuario;
 import io.github.edulanzarin.utils.Respostas;
 
 public class ProcessamentoComandosHandler {
-    private final Respostas respostas;
+    private final RegistroComandos registro;
 
-    public ProcessamentoComandosHandler() {
-        this.respostas = Respostas.getInstance();
+    public ProcessamentoComandosHandler(String botUsername, MotorTransmissao motorTransmissao) {
+        Respostas respostas = Respostas.getInstance();
+        this.registro = new RegistroComandos(botUsername, (usuario, argumentos) -> Resposta.texto(respostas.comandoNaoReconhecido()));
+
+        // Cada módulo registra seus próprios comandos
+        registro.registrar(new ComandosGerais(respostas));
+        registro.registrar(new ComandosAssinatura(respostas));
+        registro.registrar(new ComandosPlanos(respostas));
+        registro.registrar(new ComandosAdministracao(motorTransmissao));
     }
 
-    public String processarComando(String comando, Usuario usuario) {
-        return switch (comando) {
-            case "/start" -> respostas.comandoStart(usuario);
-            case "/help" -> respostas.comandoHelp();
-            default -> respostas.comandoNaoReconhecido();
-        };
+    /**
+     * Executa o comando contido no texto.
+     *
+     * @return Resposta do comando ou null se o comando for dirigido a outro bot
+     */
+    public Resposta processarComando(String comando, Usuario usuario) {
+        return registro.despachar(comando, usuario);
     }
-}
\ No newline at end of file
+}
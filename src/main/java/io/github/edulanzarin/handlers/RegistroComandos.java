@@ -0,0 +1,159 @@
+package io.github.edulanzarin.handlers;
+
+import io.github.edulanzarin.models.Usuario;
+
+/**
+ * Tabela de roteamento dos comandos do bot.
+ *
+ * Os nomes ficam em uma tabela hash de endereçamento aberto, consultada
+ * diretamente sobre o texto da mensagem: o nome do comando e o sufixo
+ * {@code @nomedobot} são delimitados por índices, sem regex nem substring.
+ * Só há alocação quando o comando tem argumentos. Nomes são comparados sem
+ * diferenciar maiúsculas de minúsculas.
+ *
+ * Os comandos são registrados na construção do handler, antes de o registro
+ * ser usado; depois disso a tabela é apenas lida.
+ */
+public class RegistroComandos {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private final String botUsername;
+    private final ManipuladorComando naoReconhecido;
+
+    private String[] nomes = new String[CAPACIDADE_INICIAL];
+    private ManipuladorComando[] manipuladores = new ManipuladorComando[CAPACIDADE_INICIAL];
+    private int tamanho;
+
+    /**
+     * @param botUsername    Nome do bot, aceito no sufixo {@code /comando@nome}
+     * @param naoReconhecido Manipulador de comandos não registrados
+     */
+    public RegistroComandos(String botUsername, ManipuladorComando naoReconhecido) {
+        this.botUsername = botUsername;
+        this.naoReconhecido = naoReconhecido;
+    }
+
+    /**
+     * Registra um comando.
+     *
+     * @param nome        Nome sem a barra (ex.: "start")
+     * @param manipulador Manipulador do comando
+     * @throws IllegalArgumentException se o nome for inválido ou já registrado
+     */
+    public void registrar(String nome, ManipuladorComando manipulador) {
+        if (nome == null || nome.isEmpty() || manipulador == null) {
+            throw new IllegalArgumentException("Nome e manipulador do comando são obrigatórios");
+        }
+        for (int i = 0; i < nome.length(); i++) {
+            char c = nome.charAt(i);
+            if (c == '/' || c == '@' || Character.isWhitespace(c)) {
+                throw new IllegalArgumentException("Nome de comando inválido: " + nome);
+            }
+        }
+        if (buscar(nome, 0, nome.length()) != null) {
+            throw new IllegalArgumentException("Comando já registrado: " + nome);
+        }
+
+        if ((tamanho + 1) * 2 > nomes.length) {
+            redimensionar();
+        }
+        inserir(nome, manipulador);
+        tamanho++;
+    }
+
+    /**
+     * Registra todos os comandos de um módulo.
+     */
+    public void registrar(ModuloComandos modulo) {
+        modulo.registrar(this);
+    }
+
+    /**
+     * Executa o comando contido no texto.
+     *
+     * @param texto   Mensagem iniciada por "/"
+     * @param usuario Usuário que enviou a mensagem
+     * @return Resposta do comando ou null se o comando for dirigido a outro bot
+     */
+    public Resposta despachar(String texto, Usuario usuario) {
+        int fimToken = 1;
+        int arroba = -1;
+        while (fimToken < texto.length() && !Character.isWhitespace(texto.charAt(fimToken))) {
+            if (arroba < 0 && texto.charAt(fimToken) == '@') {
+                arroba = fimToken;
+            }
+            fimToken++;
+        }
+
+        int fimNome = fimToken;
+        if (arroba >= 0) {
+            int tamanhoSufixo = fimToken - arroba - 1;
+            if (botUsername == null || tamanhoSufixo != botUsername.length()
+                    || !texto.regionMatches(true, arroba + 1, botUsername, 0, tamanhoSufixo)) {
+                return null; // /comando@OutroBot
+            }
+            fimNome = arroba;
+        }
+
+        ManipuladorComando manipulador = buscar(texto, 1, fimNome);
+        return (manipulador != null ? manipulador : naoReconhecido)
+                .executar(usuario, argumentos(texto, fimToken));
+    }
+
+    private static String argumentos(String texto, int inicio) {
+        int fim = texto.length();
+        while (inicio < fim && Character.isWhitespace(texto.charAt(inicio))) {
+            inicio++;
+        }
+        while (fim > inicio && Character.isWhitespace(texto.charAt(fim - 1))) {
+            fim--;
+        }
+        return inicio == fim ? "" : texto.substring(inicio, fim);
+    }
+
+    private ManipuladorComando buscar(String texto, int inicio, int fim) {
+        int tamanhoNome = fim - inicio;
+        if (tamanhoNome <= 0) {
+            return null;
+        }
+
+        int mascara = nomes.length - 1;
+        for (int i = hash(texto, inicio, fim) & mascara; nomes[i] != null; i = (i + 1) & mascara) {
+            if (nomes[i].length() == tamanhoNome && nomes[i].regionMatches(true, 0, texto, inicio, tamanhoNome)) {
+                return manipuladores[i];
+            }
+        }
+        return null;
+    }
+
+    private void inserir(String nome, ManipuladorComando manipulador) {
+        int mascara = nomes.length - 1;
+        int i = hash(nome, 0, nome.length()) & mascara;
+        while (nomes[i] != null) {
+            i = (i + 1) & mascara;
+        }
+        nomes[i] = nome;
+        manipuladores[i] = manipulador;
+    }
+
+    private void redimensionar() {
+        String[] nomesAntigos = nomes;
+        ManipuladorComando[] manipuladoresAntigos = manipuladores;
+        nomes = new String[nomesAntigos.length * 2];
+        manipuladores = new ManipuladorComando[nomesAntigos.length * 2];
+        for (int i = 0; i < nomesAntigos.length; i++) {
+            if (nomesAntigos[i] != null) {
+                inserir(nomesAntigos[i], manipuladoresAntigos[i]);
+            }
+        }
+    }
+
+    private static int hash(String texto, int inicio, int fim) {
+        int hash = 0;
+        for (int i = inicio; i < fim; i++) {
+            hash = 31 * hash + Character.toLowerCase(texto.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.edulanzarin.handlers;
+
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+
+/**
+ * Resposta de um comando: texto (HTML) e, opcionalmente, um teclado inline.
+ */
+public class Resposta {
+    private final String texto;
+    private final InlineKeyboardMarkup teclado;
+
+    private Resposta(String texto, InlineKeyboardMarkup teclado) {
+        this.texto = texto;
+        this.teclado = teclado;
+    }
+
+    public static Resposta texto(String texto) {
+        return new Resposta(texto, null);
+    }
+
+    public static Resposta comTeclado(String texto, InlineKeyboardMarkup teclado) {
+        return new Resposta(texto, teclado);
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    /**
+     * @return Teclado inline ou null se a resposta for só texto
+     */
+    public InlineKeyboardMarkup getTeclado() {
+        return teclado;
+    }
+}
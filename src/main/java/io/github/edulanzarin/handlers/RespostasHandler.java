@@ -3,7 +3,6 @@ package io.github.edulanzarin.handlers;
 import io.github.edulanzarin.core.Bot;
 import io.github.edulanzarin.utils.Respostas;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 public class RespostasHandler {
     private final Bot bot;
@@ -15,16 +14,25 @@ public class RespostasHandler {
     }
 
     public void enviarResposta(long chatId, String texto) {
+        enviarResposta(chatId, Resposta.texto(texto));
+    }
+
+    public void enviarResposta(long chatId, Resposta resposta) {
         SendMessage mensagem = new SendMessage();
         mensagem.setChatId(String.valueOf(chatId));
-        mensagem.setText(texto);
+        mensagem.setText(resposta.getTexto());
         mensagem.setParseMode("HTML");
-
-        try {
-            bot.execute(mensagem);
-        } catch (TelegramApiException e) {
-            System.err.println("[ERRO] Ao enviar mensagem: " + e.getMessage());
+        if (resposta.getTeclado() != null) {
+            // Teclado pré-montado e compartilhado; apenas serializado no envio
+            mensagem.setReplyMarkup(resposta.getTeclado());
         }
+
+        // O envio é feito pela fila do bot, respeitando os limites do Telegram
+        bot.getFilaEnvio().enfileirar(chatId, mensagem).whenComplete((enviada, erro) -> {
+            if (erro != null) {
+                System.err.println("[ERRO] Ao enviar mensagem para o chat " + chatId + ": " + erro.getMessage());
+            }
+        });
     }
 
     public void enviarRespostaGenerica(long chatId) {
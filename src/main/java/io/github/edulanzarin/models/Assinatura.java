@@ -25,6 +25,7 @@ public class Assinatura {
     private LocalDate dataFim; // Data de término da assinatura (calculada)
     private boolean ativa; // Status da assinatura
     private TipoPlano tipoPlano; // Tipo de plano contratado
+    private boolean avisoExpiracaoEnviado; // Aviso de expiração já enviado ao usuário
 
     /**
      * Cria uma nova instância de {@code Assinatura}, com a data de término
@@ -106,6 +107,14 @@ public class Assinatura {
         this.dataFim = calcularDataFim(this.dataInicio, tipoPlano);
     }
 
+    public boolean isAvisoExpiracaoEnviado() {
+        return avisoExpiracaoEnviado;
+    }
+
+    public void setAvisoExpiracaoEnviado(boolean avisoExpiracaoEnviado) {
+        this.avisoExpiracaoEnviado = avisoExpiracaoEnviado;
+    }
+
     /**
      * Calcula a data de término da assinatura com base no tipo de plano contratado.
      *
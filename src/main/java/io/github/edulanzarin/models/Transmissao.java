@@ -0,0 +1,136 @@
+package io.github.edulanzarin.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Representa o envio de uma mesma mensagem a todos os usuários cadastrados.
+ *
+ * Os usuários são percorridos em ordem de ID; o campo {@code ultimoUsuarioId}
+ * guarda o último ID já processado, permitindo retomar a transmissão após uma
+ * interrupção. Com várias instâncias do bot, a transmissão em andamento é
+ * executada por uma só: a que detém a concessão ({@code donoId}), renovada a
+ * cada progresso salvo e válida até {@code concessaoAte}.
+ *
+ * Possíveis valores para {@code status}:
+ * - "EM_ANDAMENTO": Enviando ou aguardando retomada
+ * - "CONCLUIDA": Todos os usuários foram processados
+ * - "CANCELADA": Interrompida manualmente
+ */
+public class Transmissao {
+
+    private String id; // ID da transmissão
+    private String texto; // Mensagem enviada (HTML)
+    private String ultimoUsuarioId; // Último usuário processado (null no início)
+    private long enviadas; // Mensagens entregues ao Telegram
+    private long falhas; // Mensagens que falharam
+    private StatusTransmissao status; // Situação atual
+    private LocalDateTime iniciadaEm; // Data e hora de criação
+    private LocalDateTime atualizadaEm; // Data e hora do último progresso salvo
+    private String donoId; // Instância que está executando (null se nenhuma)
+    private LocalDateTime concessaoAte; // Validade da concessão do dono
+
+    public enum StatusTransmissao {
+        EM_ANDAMENTO, CONCLUIDA, CANCELADA
+    }
+
+    /**
+     * Cria uma nova transmissão em andamento, a partir do primeiro usuário.
+     *
+     * @param id    Identificador único da transmissão
+     * @param texto Mensagem a ser enviada
+     */
+    public Transmissao(String id, String texto) {
+        this.id = id;
+        this.texto = texto;
+        this.status = StatusTransmissao.EM_ANDAMENTO;
+        this.iniciadaEm = LocalDateTime.now();
+        this.atualizadaEm = this.iniciadaEm;
+    }
+
+    // Getters e setters padrão
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+
+    public String getUltimoUsuarioId() {
+        return ultimoUsuarioId;
+    }
+
+    public void setUltimoUsuarioId(String ultimoUsuarioId) {
+        this.ultimoUsuarioId = ultimoUsuarioId;
+    }
+
+    public long getEnviadas() {
+        return enviadas;
+    }
+
+    public void setEnviadas(long enviadas) {
+        this.enviadas = enviadas;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(long falhas) {
+        this.falhas = falhas;
+    }
+
+    public StatusTransmissao getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusTransmissao status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getIniciadaEm() {
+        return iniciadaEm;
+    }
+
+    public void setIniciadaEm(LocalDateTime iniciadaEm) {
+        this.iniciadaEm = iniciadaEm;
+    }
+
+    public LocalDateTime getAtualizadaEm() {
+        return atualizadaEm;
+    }
+
+    public void setAtualizadaEm(LocalDateTime atualizadaEm) {
+        this.atualizadaEm = atualizadaEm;
+    }
+
+    public String getDonoId() {
+        return donoId;
+    }
+
+    public void setDonoId(String donoId) {
+        this.donoId = donoId;
+    }
+
+    public LocalDateTime getConcessaoAte() {
+        return concessaoAte;
+    }
+
+    public void setConcessaoAte(LocalDateTime concessaoAte) {
+        this.concessaoAte = concessaoAte;
+    }
+
+    @Override
+    public String toString() {
+        return "Transmissao [id=" + id + ", status=" + status + ", ultimoUsuarioId=" + ultimoUsuarioId
+                + ", enviadas=" + enviadas + ", falhas=" + falhas + ", donoId=" + donoId + "]";
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.edulanzarin.services;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.Assinatura;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Índice em memória da situação da assinatura de cada usuário, usado por
+ * {@link FirebaseService#verificarAssinaturaAtiva} para responder sem acessar
+ * o Firestore.
+ *
+ * Cada entrada guarda o ID da assinatura, a data de término e o campo
+ * {@code ativa}; a validade pela data é calculada a cada consulta. As
+ * entradas são atualizadas pelas escritas do próprio bot (confirmação de
+ * pagamento e cancelamento) e expiram após {@code Config.App.CACHE_EXPIRATION},
+ * para refletir alterações feitas fora do bot. No máximo
+ * {@code Config.App.MAX_CACHE_SIZE} usuários são mantidos.
+ */
+public class CacheAssinaturas {
+
+    private static final CacheAssinaturas instance = new CacheAssinaturas();
+
+    private final Map<String, Situacao> situacoes;
+    private final long validadeNanos;
+
+    private CacheAssinaturas() {
+        this.validadeNanos = Config.App.CACHE_EXPIRATION.toNanos();
+        this.situacoes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Situacao> maisAntiga) {
+                return size() > Config.App.MAX_CACHE_SIZE;
+            }
+        };
+    }
+
+    public static CacheAssinaturas getInstance() {
+        return instance;
+    }
+
+    /**
+     * Consulta se o usuário tem assinatura ativa.
+     *
+     * @param usuarioId ID do usuário
+     * @return true ou false se a situação estiver em cache; null caso contrário
+     */
+    public Boolean consultar(String usuarioId) {
+        Situacao situacao;
+        synchronized (situacoes) {
+            situacao = situacoes.get(usuarioId);
+            if (situacao != null && System.nanoTime() - situacao.carregadaEm > validadeNanos) {
+                situacoes.remove(usuarioId);
+                situacao = null;
+            }
+        }
+
+        if (situacao == null) {
+            return null;
+        }
+        return situacao.ativa && (situacao.dataFim == null || !LocalDate.now().isAfter(situacao.dataFim));
+    }
+
+    /**
+     * Registra a situação atual do usuário.
+     *
+     * @param usuarioId  ID do usuário
+     * @param assinatura Assinatura vinculada ou null se o usuário não tiver
+     */
+    public void registrar(String usuarioId, Assinatura assinatura) {
+        Situacao situacao = assinatura == null
+                ? new Situacao(null, false, null)
+                : new Situacao(assinatura.getId(), assinatura.isAtiva(), assinatura.getDataFim());
+        synchronized (situacoes) {
+            situacoes.put(usuarioId, situacao);
+        }
+    }
+
+    /**
+     * Remove a situação do usuário; a próxima consulta lerá o Firestore.
+     */
+    public void invalidarUsuario(String usuarioId) {
+        synchronized (situacoes) {
+            situacoes.remove(usuarioId);
+        }
+    }
+
+    /**
+     * Remove a situação de todos os usuários vinculados à assinatura.
+     */
+    public void invalidarAssinatura(String assinaturaId) {
+        synchronized (situacoes) {
+            situacoes.values().removeIf(situacao -> assinaturaId.equals(situacao.assinaturaId));
+        }
+    }
+
+    /**
+     * Situação da assinatura de um usuário no momento da carga.
+     */
+    private static final class Situacao {
+        private final String assinaturaId;
+        private final boolean ativa;
+        private final LocalDate dataFim;
+        private final long carregadaEm;
+
+        private Situacao(String assinaturaId, boolean ativa, LocalDate dataFim) {
+            this.assinaturaId = assinaturaId;
+            this.ativa = ativa;
+            this.dataFim = dataFim;
+            this.carregadaEm = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package io.github.edulanzarin.services;
+
+import com.google.cloud.firestore.ListenerRegistration;
+import io.github.edulanzarin.config.Config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache em memória das mensagens da coleção 'respostas'.
+ *
+ * Com o listener ativo ({@link #iniciarEscuta()}), a coleção inteira é mantida
+ * em memória e atualizada em tempo real pelo Firestore: uma mensagem editada
+ * no console chega ao bot em segundos e nenhuma busca gera leitura remota.
+ *
+ * Enquanto o listener não estiver sincronizado, o cache funciona por tempo de
+ * validade: cada mensagem vale por {@code Config.Mensagens.CACHE_TIMEOUT}, no
+ * máximo {@code Config.App.MAX_CACHE_SIZE} chaves são mantidas, e uma entrada
+ * expirada continua sendo servida enquanto sua versão atual é buscada em
+ * segundo plano.
+ */
+public class CacheMensagens implements FirebaseService.OuvinteMensagens {
+
+    private static final Logger logger = Logger.getLogger(CacheMensagens.class.getName());
+
+    private static final CacheMensagens instance = new CacheMensagens();
+
+    private static final long ESPERA_RECONEXAO_SEGUNDOS = 30;
+
+    // Espelho completo da coleção, mantido pelo listener
+    private final Map<String, String> colecao = new ConcurrentHashMap<>();
+    private volatile boolean sincronizado;
+    private volatile CountDownLatch primeiraSincronizacao = new CountDownLatch(1);
+    // Chaves recebidas desde a reconexão; null fora de uma reconexão. Criado
+    // em aoFalhar e lido pelos callbacks seguintes, que podem vir de outra thread
+    private volatile Set<String> recarga;
+    private ListenerRegistration registro;
+
+    // Cache por tempo de validade, usado sem o listener
+    private final Map<String, Entrada> entradas;
+    private final Set<String> emAtualizacao = ConcurrentHashMap.newKeySet();
+    private final long validadeNanos;
+
+    private final ScheduledExecutorService atualizador;
+
+    private final AtomicLong acertosMemoria = new AtomicLong();
+    private final AtomicLong buscasRemotas = new AtomicLong();
+
+    // Visível no pacote para os testes, que usam instâncias próprias
+    CacheMensagens() {
+        this.validadeNanos = Config.Mensagens.CACHE_TIMEOUT.toNanos();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                return size() > Config.App.MAX_CACHE_SIZE;
+            }
+        };
+        this.atualizador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-mensagens");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static CacheMensagens getInstance() {
+        return instance;
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * CARGA E LISTENER
+     * -----------------------------------------------------------
+     */
+
+    /**
+     * Registra o listener da coleção e aguarda o primeiro snapshot por até
+     * {@code Config.Firebase.READ_TIMEOUT}. Se ele não chegar a tempo, as
+     * mensagens são pré-carregadas com uma consulta e o listener segue
+     * sincronizando em segundo plano.
+     */
+    public void iniciarEscuta() {
+        CountDownLatch sincronizacao = primeiraSincronizacao;
+        registrarListener();
+
+        try {
+            if (!sincronizacao.await(Config.Firebase.READ_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.log(Level.WARNING, "Listener de mensagens ainda não sincronizou, pré-carregando");
+                precarregar();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void registrarListener() {
+        try {
+            registro = FirebaseService.escutarMensagens(this);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Falha ao registrar listener de mensagens", e);
+            agendarReconexao();
+        }
+    }
+
+    /**
+     * Cancela o listener; as buscas voltam a usar o cache por validade.
+     */
+    public synchronized void pararEscuta() {
+        sincronizado = false;
+        if (registro != null) {
+            registro.remove();
+            registro = null;
+        }
+    }
+
+    /**
+     * Carrega todas as mensagens da coleção em uma única consulta.
+     * Falhas são registradas em log e o cache passa a ser preenchido sob demanda.
+     */
+    public void precarregar() {
+        try {
+            Map<String, String> mensagens = FirebaseService.buscarTodasMensagens();
+            buscasRemotas.incrementAndGet();
+            mensagens.forEach(this::armazenar);
+            logger.log(Level.INFO, "Cache de mensagens pré-carregado com {0} chaves", mensagens.size());
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Falha ao pré-carregar o cache de mensagens", e);
+        }
+    }
+
+    /*
+     * Os callbacks do listener chegam em sequência, pela thread de eventos do
+     * Firestore.
+     */
+
+    @Override
+    public void aoAlterar(String chave, String mensagem) {
+        if (mensagem == null) {
+            colecao.remove(chave);
+        } else {
+            colecao.put(chave, mensagem);
+        }
+        Set<String> chaves = recarga;
+        if (chaves != null) {
+            chaves.add(chave);
+        }
+    }
+
+    @Override
+    public void aoRemover(String chave) {
+        colecao.remove(chave);
+    }
+
+    @Override
+    public void aoSincronizar() {
+        Set<String> chaves = recarga;
+        if (chaves != null) {
+            // Primeiro snapshot após a reconexão: traz a coleção inteira, então
+            // chaves ausentes dele foram apagadas enquanto o listener estava fora
+            colecao.keySet().retainAll(chaves);
+            recarga = null;
+        }
+        if (!sincronizado) {
+            logger.log(Level.INFO, "Listener de mensagens sincronizado com {0} chaves", colecao.size());
+        }
+        sincronizado = true;
+        primeiraSincronizacao.countDown();
+    }
+
+    @Override
+    public void aoFalhar(Exception erro) {
+        synchronized (this) {
+            sincronizado = false;
+            registro = null;
+            primeiraSincronizacao = new CountDownLatch(1);
+            recarga = ConcurrentHashMap.newKeySet();
+        }
+        agendarReconexao();
+    }
+
+    private void agendarReconexao() {
+        try {
+            atualizador.schedule(this::registrarListener, ESPERA_RECONEXAO_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "Reconexão do listener de mensagens não agendada", e);
+        }
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * BUSCA
+     * -----------------------------------------------------------
+     */
+
+    /**
+     * Retorna a mensagem da chave informada. Com o listener sincronizado a
+     * resposta vem sempre da memória; caso contrário, o Firestore é consultado
+     * apenas se a chave ainda não estiver em cache.
+     *
+     * @param chave Chave da mensagem
+     * @return Mensagem encontrada ou null
+     */
+    public String buscar(String chave) {
+        if (sincronizado) {
+            acertosMemoria.incrementAndGet();
+            return colecao.get(chave);
+        }
+
+        Entrada entrada;
+        synchronized (entradas) {
+            entrada = entradas.get(chave);
+        }
+
+        if (entrada == null) {
+            buscasRemotas.incrementAndGet();
+            String mensagem = FirebaseService.buscarMensagem(chave);
+            if (mensagem != null) {
+                armazenar(chave, mensagem);
+            }
+            return mensagem;
+        }
+
+        acertosMemoria.incrementAndGet();
+        if (System.nanoTime() - entrada.carregadaEm > validadeNanos) {
+            agendarAtualizacao(chave);
+        }
+        return entrada.mensagem;
+    }
+
+    /**
+     * Busca a versão atual da chave em segundo plano, evitando buscas
+     * duplicadas para a mesma chave.
+     */
+    private void agendarAtualizacao(String chave) {
+        if (!emAtualizacao.add(chave)) {
+            return;
+        }
+
+        try {
+            atualizador.execute(() -> {
+                try {
+                    buscasRemotas.incrementAndGet();
+                    String mensagem = FirebaseService.buscarMensagem(chave);
+                    if (mensagem != null) {
+                        armazenar(chave, mensagem);
+                    }
+                } finally {
+                    emAtualizacao.remove(chave);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            emAtualizacao.remove(chave);
+        }
+    }
+
+    private void armazenar(String chave, String mensagem) {
+        Entrada entrada = new Entrada(mensagem, System.nanoTime());
+        synchronized (entradas) {
+            entradas.put(chave, entrada);
+        }
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * MÉTRICAS
+     * -----------------------------------------------------------
+     */
+
+    /**
+     * Quantidade de buscas respondidas pela memória, sem acesso ao Firestore.
+     */
+    public long getAcertosMemoria() {
+        return acertosMemoria.get();
+    }
+
+    /**
+     * Quantidade de leituras feitas no Firestore (buscas, atualizações e
+     * pré-carga); não inclui as leituras cobradas pelo listener.
+     */
+    public long getBuscasRemotas() {
+        return buscasRemotas.get();
+    }
+
+    public boolean isSincronizado() {
+        return sincronizado;
+    }
+
+    /**
+     * Mensagem armazenada e o instante em que foi carregada.
+     */
+    private static final class Entrada {
+        private final String mensagem;
+        private final long carregadaEm;
+
+        private Entrada(String mensagem, long carregadaEm) {
+            this.mensagem = mensagem;
+            this.carregadaEm = carregadaEm;
+        }
+    }
+}
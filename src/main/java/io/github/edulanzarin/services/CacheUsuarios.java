@@ -0,0 +1,146 @@
+package io.github.edulanzarin.services;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.Usuario;
+import io.github.edulanzarin.utils.FiltroBloom;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache de usuários já cadastrados, usado para evitar acessos ao Firestore a
+ * cada mensagem recebida.
+ *
+ * - Um LRU com os perfis vistos recentemente responde sem nenhum acesso
+ * remoto quando o perfil não mudou, e gera apenas um update quando mudou.
+ * - Um filtro de Bloom com os IDs de todos os usuários cadastrados, carregado
+ * na inicialização, identifica usuários certamente novos, que são cadastrados
+ * sem leitura prévia.
+ * - Nos demais casos (ID possivelmente cadastrado, fora do LRU) o documento é
+ * lido uma vez e o usuário passa a ficar em cache.
+ */
+public class CacheUsuarios {
+
+    private static final Logger logger = Logger.getLogger(CacheUsuarios.class.getName());
+
+    private static final CacheUsuarios instance = new CacheUsuarios();
+
+    private final FiltroBloom idsConhecidos;
+    private final Map<String, Usuario> recentes;
+    private volatile boolean filtroCompleto;
+
+    private CacheUsuarios() {
+        this.idsConhecidos = new FiltroBloom(
+                Config.App.CAPACIDADE_FILTRO_USUARIOS,
+                Config.App.TAXA_FALSO_POSITIVO_FILTRO);
+        this.recentes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Usuario> maisAntigo) {
+                return size() > Config.App.MAX_USUARIOS_CACHE;
+            }
+        };
+    }
+
+    public static CacheUsuarios getInstance() {
+        return instance;
+    }
+
+    /**
+     * Carrega os IDs dos usuários cadastrados no filtro, em uma thread própria.
+     * Até o fim da carga, usuários fora do LRU são sempre lidos do Firestore.
+     */
+    public void carregarEmSegundoPlano() {
+        Thread thread = new Thread(this::carregar, "carga-usuarios");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void carregar() {
+        try {
+            int total = FirebaseService.listarIdsUsuarios(idsConhecidos::adicionar);
+            filtroCompleto = true;
+            logger.log(Level.INFO, "Filtro de usuários carregado com {0} IDs", total);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Falha ao carregar IDs de usuários; filtro desativado", e);
+        }
+    }
+
+    /**
+     * Garante que o usuário esteja cadastrado com o perfil atual, acessando o
+     * Firestore apenas quando necessário.
+     *
+     * @param usuario Usuário extraído da mensagem recebida
+     * @return true se o usuário foi cadastrado agora
+     * @throws FirebaseService.FirebaseOperationException se houver erro na operação
+     */
+    public boolean verificarECadastrar(Usuario usuario) {
+        Usuario conhecido;
+        synchronized (recentes) {
+            conhecido = recentes.get(usuario.getId());
+        }
+
+        if (conhecido != null) {
+            if (!mesmoPerfil(conhecido, usuario)) {
+                FirebaseService.atualizarPerfilUsuario(usuario);
+                lembrar(usuario);
+            }
+            return false;
+        }
+
+        boolean cadastrado;
+        if (filtroCompleto && !idsConhecidos.podeConter(usuario.getId())) {
+            cadastrado = FirebaseService.cadastrarUsuarioNovo(usuario)
+                    || FirebaseService.sincronizarUsuario(usuario);
+        } else {
+            cadastrado = FirebaseService.sincronizarUsuario(usuario);
+        }
+
+        lembrar(usuario);
+        return cadastrado;
+    }
+
+    /**
+     * Garante o cadastro de vários usuários de uma vez. Os que estão no LRU
+     * com o mesmo perfil são ignorados; os demais são sincronizados com uma
+     * leitura e um commit no Firestore, e passam a ficar em cache.
+     *
+     * @param usuarios Usuários extraídos de um lote de mensagens
+     * @return Quantidade de usuários cadastrados agora
+     * @throws FirebaseService.FirebaseOperationException se houver erro na operação
+     */
+    public int verificarECadastrarLote(Collection<Usuario> usuarios) {
+        Map<String, Usuario> pendentes = new LinkedHashMap<>();
+        synchronized (recentes) {
+            for (Usuario usuario : usuarios) {
+                Usuario conhecido = recentes.get(usuario.getId());
+                if (conhecido == null || !mesmoPerfil(conhecido, usuario)) {
+                    pendentes.put(usuario.getId(), usuario); // O último perfil do lote prevalece
+                }
+            }
+        }
+
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+
+        int cadastrados = FirebaseService.sincronizarUsuarios(pendentes.values()).size();
+        pendentes.values().forEach(this::lembrar);
+        return cadastrados;
+    }
+
+    private void lembrar(Usuario usuario) {
+        idsConhecidos.adicionar(usuario.getId());
+        synchronized (recentes) {
+            recentes.put(usuario.getId(), usuario);
+        }
+    }
+
+    private static boolean mesmoPerfil(Usuario a, Usuario b) {
+        return Objects.equals(a.getUsuario(), b.getUsuario())
+                && Objects.equals(a.getNome(), b.getNome());
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.edulanzarin.services;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.Evento;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coleta os eventos registrados durante o processamento das mensagens e os
+ * grava em lotes, em uma thread própria.
+ *
+ * Com o {@link SpoolEventos} ativo, cada lote é gravado no spool local, de
+ * onde segue para o Firestore; caso contrário (ou se o spool recusar o lote),
+ * o lote é gravado diretamente no Firestore.
+ *
+ * Um lote é gravado quando atinge {@code Config.Validation.MAX_BATCH_SIZE}
+ * eventos ou quando o evento mais antigo espera
+ * {@code Config.Eventos.INTERVALO_FLUSH}. O registro nunca bloqueia quem
+ * chama: se a fila estiver cheia, o evento é descartado e contabilizado.
+ */
+public class ColetorEventos {
+
+    private static final Logger logger = Logger.getLogger(ColetorEventos.class.getName());
+
+    private static final ColetorEventos instance = new ColetorEventos();
+
+    private final BlockingQueue<Evento> fila = new LinkedBlockingQueue<>(Config.Eventos.CAPACIDADE_FILA);
+    private final Thread thread;
+    private volatile boolean executando = true;
+
+    private final AtomicLong gravados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    private ColetorEventos() {
+        this.thread = new Thread(this::executar, "coletor-eventos");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public static ColetorEventos getInstance() {
+        return instance;
+    }
+
+    /**
+     * Enfileira um evento para gravação.
+     *
+     * @param evento Evento a ser registrado
+     * @return false se o evento foi descartado por falta de espaço na fila
+     * @throws IllegalArgumentException se o evento for nulo ou inválido
+     */
+    public boolean registrar(Evento evento) {
+        if (evento == null) {
+            throw new IllegalArgumentException("Evento não pode ser nulo");
+        }
+        if (evento.getId() == null || evento.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("ID do evento é obrigatório");
+        }
+        if (evento.getTipoEvento() == null || evento.getTipoEvento().trim().isEmpty()) {
+            throw new IllegalArgumentException("Tipo de evento é obrigatório");
+        }
+        if (evento.getDataHora() == null) {
+            evento.setDataHora(LocalDateTime.now());
+        }
+
+        if (!executando || !fila.offer(evento)) {
+            long total = descartados.incrementAndGet();
+            logger.log(Level.WARNING, "Evento {0} descartado (total descartado: {1})",
+                    new Object[] { evento.getId(), total });
+            return false;
+        }
+        return true;
+    }
+
+    private void executar() {
+        long intervaloNanos = Config.Eventos.INTERVALO_FLUSH.toNanos();
+        List<Evento> lote = new ArrayList<>(Config.Validation.MAX_BATCH_SIZE);
+        long prazo = System.nanoTime() + intervaloNanos;
+
+        while (executando || !fila.isEmpty()) {
+            try {
+                long espera = prazo - System.nanoTime();
+                Evento evento = espera > 0 ? fila.poll(espera, TimeUnit.NANOSECONDS) : null;
+                if (evento != null) {
+                    lote.add(evento);
+                    fila.drainTo(lote, Config.Validation.MAX_BATCH_SIZE - lote.size());
+                }
+            } catch (InterruptedException e) {
+                // Thread própria do coletor: trata a interrupção como encerramento
+                executando = false;
+            }
+
+            if (lote.size() >= Config.Validation.MAX_BATCH_SIZE || System.nanoTime() - prazo >= 0
+                    || !executando) {
+                gravar(lote);
+                lote.clear();
+                prazo = System.nanoTime() + intervaloNanos;
+            }
+        }
+        gravar(lote);
+    }
+
+    private void gravar(List<Evento> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        SpoolEventos spool = SpoolEventos.getInstance();
+        if (spool.isAtivo() && spool.anexar(lote)) {
+            gravados.addAndGet(lote.size());
+            return;
+        }
+
+        try {
+            FirebaseService.registrarEventos(lote);
+            gravados.addAndGet(lote.size());
+        } catch (RuntimeException e) {
+            falhas.addAndGet(lote.size());
+            logger.log(Level.SEVERE, "Falha ao gravar lote de " + lote.size() + " eventos", e);
+        }
+    }
+
+    /**
+     * Para de aceitar eventos e aguarda a gravação dos que estão na fila por
+     * até {@code Config.Eventos.TEMPO_ENCERRAMENTO}.
+     */
+    public void encerrar() {
+        executando = false;
+        try {
+            thread.join(Config.Eventos.TEMPO_ENCERRAMENTO.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (thread.isAlive()) {
+            logger.log(Level.WARNING, "Encerramento com {0} eventos ainda na fila", fila.size());
+        }
+    }
+
+    /**
+     * Quantidade de eventos aguardando gravação.
+     */
+    public int tamanhoFila() {
+        return fila.size();
+    }
+
+    public long getGravados() {
+        return gravados.get();
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+}
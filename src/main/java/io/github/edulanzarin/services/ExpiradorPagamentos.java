@@ -0,0 +1,179 @@
+package io.github.edulanzarin.services;
+
+import io.github.edulanzarin.config.Config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cancela os pagamentos pendentes quando o vencimento passa.
+ *
+ * Os prazos ficam em uma {@link DelayQueue} em memória: carregada uma vez na
+ * inicialização com os pagamentos {@code PENDENTE} e alimentada por
+ * {@link FirebaseService#criarPagamento}. Uma thread própria espera o próximo
+ * vencimento, agrupa os que vencem em seguida e os cancela com
+ * {@link FirebaseService#expirarPagamentos}, sem varrer a coleção de
+ * pagamentos. Pagamentos aprovados antes do prazo continuam na fila, mas a
+ * expiração confere o status e não os altera.
+ */
+public class ExpiradorPagamentos {
+
+    private static final Logger logger = Logger.getLogger(ExpiradorPagamentos.class.getName());
+
+    private static final ExpiradorPagamentos instance = new ExpiradorPagamentos();
+
+    private final DelayQueue<Prazo> prazos = new DelayQueue<>();
+    private volatile Thread thread;
+    private volatile boolean executando;
+
+    private final AtomicLong cancelados = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    private ExpiradorPagamentos() {
+    }
+
+    public static ExpiradorPagamentos getInstance() {
+        return instance;
+    }
+
+    /**
+     * Inicia a thread do expirador, que carrega os pagamentos pendentes antes
+     * de começar a aguardar os vencimentos.
+     */
+    public synchronized void iniciar() {
+        if (thread != null) {
+            return;
+        }
+        executando = true;
+        thread = new Thread(this::executar, "expirador-pagamentos");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Agenda a expiração de um pagamento pendente.
+     *
+     * @param pagamentoId ID do pagamento
+     * @param vencimento  Data e hora de expiração
+     */
+    public void agendar(String pagamentoId, LocalDateTime vencimento) {
+        agendar(pagamentoId, vencimento.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void agendar(String pagamentoId, Instant vencimento) {
+        long espera = Duration.between(Instant.now(), vencimento).toNanos();
+        prazos.add(new Prazo(pagamentoId, System.nanoTime() + espera));
+    }
+
+    private void executar() {
+        carregarPendentes();
+
+        List<Prazo> lote = new ArrayList<>(Config.Pagamento.LOTE_EXPIRACAO);
+        while (executando) {
+            try {
+                lote.add(prazos.take());
+                // Agrupa os vencimentos próximos em uma única gravação
+                Thread.sleep(Config.Pagamento.ESPERA_LOTE_EXPIRACAO.toMillis());
+                prazos.drainTo(lote, Config.Pagamento.LOTE_EXPIRACAO - lote.size());
+            } catch (InterruptedException e) {
+                // Thread própria do expirador: trata a interrupção como encerramento
+                executando = false;
+            }
+
+            if (!lote.isEmpty()) {
+                expirar(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private void carregarPendentes() {
+        try {
+            Map<String, Instant> vencimentos = FirebaseService.listarVencimentosPendentes();
+            vencimentos.forEach(this::agendar);
+            logger.log(Level.INFO, "{0} pagamento(s) pendente(s) agendado(s) para expiração", vencimentos.size());
+        } catch (FirebaseService.FirebaseOperationException e) {
+            // Os pagamentos criados a partir de agora continuam sendo agendados
+            logger.log(Level.SEVERE, "Erro ao carregar os pagamentos pendentes", e);
+        }
+    }
+
+    private void expirar(List<Prazo> lote) {
+        List<String> ids = new ArrayList<>(lote.size());
+        for (Prazo prazo : lote) {
+            ids.add(prazo.pagamentoId);
+        }
+
+        try {
+            int total = FirebaseService.expirarPagamentos(ids);
+            cancelados.addAndGet(total);
+            logger.log(Level.INFO, "{0} de {1} pagamento(s) vencido(s) cancelado(s)",
+                    new Object[] { total, ids.size() });
+        } catch (FirebaseService.FirebaseOperationException e) {
+            falhas.addAndGet(ids.size());
+            logger.log(Level.WARNING, "Erro ao expirar pagamentos; nova tentativa em "
+                    + Config.Pagamento.INTERVALO_RETRY.toSeconds() + "s", e);
+            long novaTentativa = System.nanoTime() + Config.Pagamento.INTERVALO_RETRY.toNanos();
+            for (String id : ids) {
+                prazos.add(new Prazo(id, novaTentativa));
+            }
+        }
+    }
+
+    public int getAgendados() {
+        return prazos.size();
+    }
+
+    public long getCancelados() {
+        return cancelados.get();
+    }
+
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    /**
+     * Interrompe a thread do expirador. Os prazos em memória são descartados e
+     * recarregados do Firestore na próxima inicialização.
+     */
+    public synchronized void encerrar() {
+        executando = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Vencimento de um pagamento, ordenado pelo {@code System.nanoTime()}.
+     */
+    private static final class Prazo implements Delayed {
+        private final String pagamentoId;
+        private final long vencimentoNanos;
+
+        Prazo(String pagamentoId, long vencimentoNanos) {
+            this.pagamentoId = pagamentoId;
+            this.vencimentoNanos = vencimentoNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unidade) {
+            return unidade.convert(vencimentoNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outro) {
+            return Long.compare(vencimentoNanos, ((Prazo) outro).vencimentoNanos);
+        }
+    }
+}
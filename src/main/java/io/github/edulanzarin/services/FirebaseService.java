@@ -1,36 +1,68 @@
 package io.github.edulanzarin.services;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
 import com.google.gson.JsonObject;
+import io.github.edulanzarin.config.Config;
 import io.github.edulanzarin.models.Assinatura;
 import io.github.edulanzarin.models.Evento;
 import io.github.edulanzarin.models.Pagamento;
 import io.github.edulanzarin.models.TipoPlano;
+import io.github.edulanzarin.models.Transmissao;
 import io.github.edulanzarin.models.Usuario;
 import io.github.edulanzarin.utils.CarregarEnv;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Serviço de integração com o Firebase Firestore.
@@ -46,7 +78,9 @@ public class FirebaseService {
         private static final Logger logger = Logger.getLogger(
                         FirebaseService.class.getName());
         private static volatile Firestore db;
-        private static final Object initLock = new Object();
+        // ReentrantLock em vez de synchronized: não prende a carrier thread
+        // quando a inicialização ocorre em uma virtual thread
+        private static final ReentrantLock initLock = new ReentrantLock();
 
         // Constantes para coleções
         private static final String COLLECTION_USUARIOS = "usuarios";
@@ -54,6 +88,12 @@ public class FirebaseService {
         private static final String COLLECTION_ASSINATURAS = "assinaturas";
         private static final String COLLECTION_RESPOSTAS = "respostas";
         private static final String COLLECTION_EVENTOS = "eventos";
+        private static final String COLLECTION_TRANSMISSOES = "transmissoes";
+        private static final String COLLECTION_MENSAGENS = "mensagens";
+        private static final String COLLECTION_RESUMOS_EVENTOS = "resumos_eventos";
+
+        // Máximo de operações por commit aceito pelo Firestore
+        private static final int LIMITE_WRITE_BATCH = 500;
 
         // Campos obrigatórios das variáveis de ambiente
         private static final String[] REQUIRED_ENV_VARS = {
@@ -96,7 +136,8 @@ public class FirebaseService {
                 if (db != null)
                         return;
 
-                synchronized (initLock) {
+                initLock.lock();
+                try {
                         if (db != null)
                                 return; // Double-check locking
 
@@ -127,6 +168,8 @@ public class FirebaseService {
                                                 "Falha na inicialização do Firebase",
                                                 e);
                         }
+                } finally {
+                        initLock.unlock();
                 }
         }
 
@@ -260,6 +303,264 @@ public class FirebaseService {
                 }
         }
 
+        /**
+         * Cadastra um usuário que se sabe não existir, sem leitura prévia.
+         * Usa create(), que falha se o documento já existir.
+         *
+         * @param usuario Objeto Usuario com os dados do usuário
+         * @return true se o usuário foi cadastrado, false se ele já existia
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static boolean cadastrarUsuarioNovo(Usuario usuario) {
+                validateUser(usuario);
+                checkInitialization();
+
+                try {
+                        db.collection(COLLECTION_USUARIOS)
+                                        .document(usuario.getId())
+                                        .create(createUserData(usuario))
+                                        .get();
+
+                        logger.log(
+                                        Level.INFO,
+                                        "Usuário {0} cadastrado com sucesso",
+                                        usuario.getId());
+                        return true;
+                } catch (ExecutionException e) {
+                        if (isAlreadyExists(e)) {
+                                return false;
+                        }
+                        logger.log(
+                                        Level.SEVERE,
+                                        "Erro ao cadastrar usuário " + usuario.getId(),
+                                        e);
+                        throw new FirebaseOperationException("Erro ao cadastrar usuário", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Cadastro de usuário interrompido", e);
+                }
+        }
+
+        /**
+         * Garante que o usuário exista no Firestore com o perfil atual:
+         * cadastra se não existir e atualiza os campos 'usuario' e 'nome' se
+         * tiverem mudado, preservando o vínculo de assinatura.
+         *
+         * @param usuario Objeto Usuario com os dados atuais do Telegram
+         * @return true se o usuário foi cadastrado, false se já existia
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static boolean sincronizarUsuario(Usuario usuario) {
+                validateUser(usuario);
+                checkInitialization();
+
+                try {
+                        DocumentReference docRef = db
+                                        .collection(COLLECTION_USUARIOS)
+                                        .document(usuario.getId());
+                        DocumentSnapshot doc = docRef.get().get();
+
+                        if (!doc.exists()) {
+                                docRef.set(createUserData(usuario)).get();
+                                logger.log(
+                                                Level.INFO,
+                                                "Usuário {0} cadastrado com sucesso",
+                                                usuario.getId());
+                                return true;
+                        }
+
+                        if (!Objects.equals(doc.getString("usuario"), usuario.getUsuario())
+                                        || !Objects.equals(doc.getString("nome"), usuario.getNome())) {
+                                atualizarPerfilUsuario(usuario);
+                        }
+                        return false;
+                } catch (ExecutionException e) {
+                        logger.log(
+                                        Level.SEVERE,
+                                        "Erro ao sincronizar usuário " + usuario.getId(),
+                                        e);
+                        throw new FirebaseOperationException("Erro ao sincronizar usuário", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Sincronização de usuário interrompida", e);
+                }
+        }
+
+        /**
+         * Sincroniza vários usuários com uma única leitura (getAll) e um único
+         * commit (WriteBatch): cadastra os inexistentes e atualiza os perfis
+         * alterados, preservando o vínculo de assinatura.
+         *
+         * @param usuarios Usuários com os dados atuais do Telegram
+         * @return IDs dos usuários cadastrados agora
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static Set<String> sincronizarUsuarios(Collection<Usuario> usuarios) {
+                if (usuarios == null || usuarios.isEmpty()) {
+                        return Set.of();
+                }
+                usuarios.forEach(FirebaseService::validateUser);
+                checkInitialization();
+
+                List<Usuario> lista = new ArrayList<>(usuarios);
+                DocumentReference[] refs = new DocumentReference[lista.size()];
+                for (int i = 0; i < refs.length; i++) {
+                        refs[i] = db.collection(COLLECTION_USUARIOS).document(lista.get(i).getId());
+                }
+
+                try {
+                        List<DocumentSnapshot> docs = db.getAll(refs).get();
+                        Set<String> cadastrados = new HashSet<>();
+                        WriteBatch batch = db.batch();
+                        int operacoes = 0;
+
+                        for (int i = 0; i < refs.length; i++) {
+                                Usuario usuario = lista.get(i);
+                                DocumentSnapshot doc = docs.get(i);
+
+                                if (!doc.exists()) {
+                                        // merge sem assinaturaId: não apaga um vínculo gravado
+                                        // por outra instância entre a leitura e o commit
+                                        Map<String, Object> data = createUserData(usuario);
+                                        data.values().removeIf(Objects::isNull);
+                                        batch.set(refs[i], data, SetOptions.merge());
+                                        cadastrados.add(usuario.getId());
+                                } else if (!Objects.equals(doc.getString("usuario"), usuario.getUsuario())
+                                                || !Objects.equals(doc.getString("nome"), usuario.getNome())) {
+                                        batch.update(refs[i], "usuario", usuario.getUsuario(), "nome", usuario.getNome());
+                                } else {
+                                        continue;
+                                }
+
+                                if (++operacoes == LIMITE_WRITE_BATCH) {
+                                        batch.commit().get();
+                                        batch = db.batch();
+                                        operacoes = 0;
+                                }
+                        }
+                        if (operacoes > 0) {
+                                batch.commit().get();
+                        }
+
+                        logger.log(
+                                        Level.FINE,
+                                        "{0} usuários sincronizados em lote, {1} cadastrados",
+                                        new Object[] { lista.size(), cadastrados.size() });
+                        return cadastrados;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao sincronizar lote de usuários", e);
+                        throw new FirebaseOperationException("Erro ao sincronizar lote de usuários", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Sincronização de usuários interrompida", e);
+                }
+        }
+
+        /**
+         * Atualiza o nome de usuário e o nome do usuário, sem alterar os demais
+         * campos
+         *
+         * @param usuario Objeto Usuario com o perfil atual
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static void atualizarPerfilUsuario(Usuario usuario) {
+                validateUser(usuario);
+                checkInitialization();
+
+                try {
+                        db.collection(COLLECTION_USUARIOS)
+                                        .document(usuario.getId())
+                                        .update("usuario", usuario.getUsuario(), "nome", usuario.getNome())
+                                        .get();
+
+                        logger.log(
+                                        Level.INFO,
+                                        "Perfil do usuário {0} atualizado",
+                                        usuario.getId());
+                } catch (ExecutionException e) {
+                        logger.log(
+                                        Level.SEVERE,
+                                        "Erro ao atualizar perfil do usuário " + usuario.getId(),
+                                        e);
+                        throw new FirebaseOperationException("Erro ao atualizar perfil do usuário", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Atualização de perfil interrompida", e);
+                }
+        }
+
+        /**
+         * Percorre os IDs de todos os usuários cadastrados, em páginas e sem
+         * carregar os demais campos dos documentos
+         *
+         * @param consumidor Receptor de cada ID
+         * @return Quantidade de IDs percorridos
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static int listarIdsUsuarios(Consumer<String> consumidor) {
+                int total = 0;
+                String ultimoId = null;
+
+                while (true) {
+                        List<String> pagina = listarPaginaIdsUsuarios(ultimoId, Config.Firebase.TAMANHO_PAGINA);
+                        pagina.forEach(consumidor);
+                        total += pagina.size();
+
+                        if (pagina.size() < Config.Firebase.TAMANHO_PAGINA) {
+                                break;
+                        }
+                        ultimoId = pagina.get(pagina.size() - 1);
+                }
+
+                logger.log(Level.INFO, "{0} IDs de usuários listados", total);
+                return total;
+        }
+
+        /**
+         * Lista uma página de IDs de usuários em ordem crescente, a partir do
+         * ID informado (exclusivo), sem carregar os demais campos
+         *
+         * @param aposId ID do último usuário da página anterior ou null para
+         *               começar do início
+         * @param limite Quantidade máxima de IDs
+         * @return IDs da página; menos que {@code limite} indica o fim
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static List<String> listarPaginaIdsUsuarios(String aposId, int limite) {
+                checkInitialization();
+
+                Query consulta = db.collection(COLLECTION_USUARIOS)
+                                .orderBy(FieldPath.documentId())
+                                .select(FieldPath.documentId())
+                                .limit(limite);
+                if (aposId != null) {
+                        consulta = consulta.startAfter(aposId);
+                }
+
+                try {
+                        List<String> ids = new ArrayList<>(limite);
+                        for (QueryDocumentSnapshot document : consulta.get().get()) {
+                                ids.add(document.getId());
+                        }
+                        return ids;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao listar IDs de usuários", e);
+                        throw new FirebaseOperationException("Erro ao listar IDs de usuários", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Listagem de usuários interrompida", e);
+                }
+        }
+
+        /**
+         * Verifica se a falha de uma escrita foi causada por documento já existente
+         */
+        private static boolean isAlreadyExists(ExecutionException e) {
+                return e.getCause() instanceof ApiException
+                                && ((ApiException) e.getCause()).getStatusCode()
+                                                .getCode() == StatusCode.Code.ALREADY_EXISTS;
+        }
+
         /**
          * Busca um usuário pelo ID
          *
@@ -351,6 +652,7 @@ public class FirebaseService {
                         Map<String, Object> data = createPaymentData(pagamento);
 
                         ref.set(data).get();
+                        ExpiradorPagamentos.getInstance().agendar(pagamento.getId(), pagamento.getVencimento());
                         logger.log(
                                         Level.INFO,
                                         "Pagamento {0} criado com sucesso",
@@ -413,7 +715,13 @@ public class FirebaseService {
         }
 
         /**
-         * Confirma um pagamento e cria a assinatura correspondente
+         * Confirma um pagamento e cria a assinatura correspondente.
+         *
+         * A leitura do pagamento, a criação da assinatura e o vínculo com o
+         * usuário acontecem em uma única transação. A assinatura usa o ID do
+         * pagamento como ID do documento, e um pagamento já confirmado apenas
+         * retorna a assinatura existente, de modo que notificações repetidas do
+         * mesmo pagamento não criam assinaturas duplicadas.
          *
          * @param pagamentoId ID do pagamento a ser confirmado
          * @return true se a operação foi bem-sucedida
@@ -426,67 +734,25 @@ public class FirebaseService {
                 logger.log(Level.INFO, "Confirmando pagamento {0}", pagamentoId);
 
                 try {
-                        // 1. Atualizar status do pagamento
-                        db
-                                        .collection(COLLECTION_PAGAMENTOS)
-                                        .document(pagamentoId)
-                                        .update("status", Pagamento.StatusPagamento.APROVADO.name())
+                        Assinatura assinatura = db
+                                        .runTransaction(confirmarPagamentoTransacao(pagamentoId))
                                         .get();
+                        CacheAssinaturas.getInstance().registrar(assinatura.getUsuarioId(), assinatura);
 
                         logger.log(
                                         Level.INFO,
-                                        "Status do pagamento {0} atualizado para APROVADO",
-                                        pagamentoId);
-
-                        // 2. Buscar dados do pagamento
-                        DocumentSnapshot pagamentoDoc = db
-                                        .collection(COLLECTION_PAGAMENTOS)
-                                        .document(pagamentoId)
-                                        .get()
-                                        .get();
-
-                        if (!pagamentoDoc.exists()) {
-                                logger.log(
-                                                Level.WARNING,
-                                                "Pagamento {0} não encontrado",
-                                                pagamentoId);
-                                throw new IllegalArgumentException("Pagamento não encontrado");
-                        }
-
-                        String usuarioId = pagamentoDoc.getString("usuarioId");
-                        String tipoPlanoStr = pagamentoDoc.getString("plano");
-
-                        if (usuarioId == null || tipoPlanoStr == null) {
+                                        "Pagamento {0} confirmado com a assinatura {1}",
+                                        new Object[] { pagamentoId, assinatura.getId() });
+                        return true;
+                } catch (ExecutionException e) {
+                        if (e.getCause() instanceof IllegalArgumentException
+                                        || e.getCause() instanceof IllegalStateException) {
                                 logger.log(
                                                 Level.WARNING,
-                                                "Dados incompletos no pagamento {0}",
-                                                pagamentoId);
-                                throw new IllegalStateException(
-                                                "Dados incompletos no pagamento");
+                                                "Pagamento {0} não confirmado: {1}",
+                                                new Object[] { pagamentoId, e.getCause().getMessage() });
+                                return false;
                         }
-
-                        // 3. Criar nova assinatura
-                        TipoPlano tipoPlano = TipoPlano.valueOf(tipoPlanoStr);
-                        String assinaturaId = criarAssinatura(
-                                        usuarioId,
-                                        pagamentoId,
-                                        tipoPlano);
-
-                        // 4. Atualizar usuário com ID da assinatura
-                        db
-                                        .collection(COLLECTION_USUARIOS)
-                                        .document(usuarioId)
-                                        .update("assinaturaId", assinaturaId)
-                                        .get();
-
-                        logger.log(
-                                        Level.INFO,
-                                        "Usuário {0} atualizado com a assinatura {1}",
-                                        new Object[] { usuarioId, assinaturaId });
-
-                        return true;
-                } catch (ExecutionException | InterruptedException e) {
-                        Thread.currentThread().interrupt();
                         logger.log(
                                         Level.SEVERE,
                                         "Erro ao confirmar pagamento " + pagamentoId,
@@ -494,6 +760,11 @@ public class FirebaseService {
                         throw new FirebaseOperationException(
                                         "Erro ao confirmar pagamento",
                                         e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException(
+                                        "Confirmação de pagamento interrompida",
+                                        e);
                 } catch (Exception e) {
                         logger.log(
                                         Level.SEVERE,
@@ -504,34 +775,66 @@ public class FirebaseService {
         }
 
         /**
-         * Cria uma nova assinatura
+         * Transação de confirmação do pagamento: lê o pagamento e, se ainda não
+         * houver assinatura vinculada, aprova o pagamento, cria a assinatura e
+         * vincula ao usuário em um único commit
+         *
+         * @return Assinatura criada ou já existente
          */
-        private static String criarAssinatura(
-                        String usuarioId,
-                        String pagamentoId,
-                        TipoPlano tipoPlano) throws ExecutionException, InterruptedException {
-                DocumentReference assinaturaRef = db
-                                .collection(COLLECTION_ASSINATURAS)
-                                .document();
-                LocalDate inicio = LocalDate.now();
+        private static Transaction.Function<Assinatura> confirmarPagamentoTransacao(String pagamentoId) {
+                return transacao -> {
+                        DocumentReference pagamentoRef = db
+                                        .collection(COLLECTION_PAGAMENTOS)
+                                        .document(pagamentoId);
+                        DocumentSnapshot pagamentoDoc = transacao.get(pagamentoRef).get();
 
-                Assinatura assinatura = new Assinatura(
-                                assinaturaRef.getId(),
-                                usuarioId,
-                                pagamentoId,
-                                inicio,
-                                tipoPlano,
-                                true);
+                        if (!pagamentoDoc.exists()) {
+                                throw new IllegalArgumentException("Pagamento não encontrado");
+                        }
 
-                Map<String, Object> assinaturaData = createSubscriptionData(assinatura);
-                assinaturaRef.set(assinaturaData).get();
+                        String assinaturaExistente = pagamentoDoc.getString("assinaturaId");
+                        if (assinaturaExistente != null && Pagamento.StatusPagamento.APROVADO.name()
+                                        .equals(pagamentoDoc.getString("status"))) {
+                                // Confirmação repetida: retorna a assinatura já criada
+                                DocumentSnapshot assinaturaDoc = transacao.get(db
+                                                .collection(COLLECTION_ASSINATURAS)
+                                                .document(assinaturaExistente)).get();
+                                if (assinaturaDoc.exists() && hasRequiredSubscriptionFields(assinaturaDoc)) {
+                                        return createSubscriptionFromDocument(assinaturaDoc);
+                                }
+                        }
 
-                logger.log(
-                                Level.INFO,
-                                "Assinatura {0} criada com sucesso para o usuário {1}",
-                                new Object[] { assinaturaRef.getId(), usuarioId });
+                        String usuarioId = pagamentoDoc.getString("usuarioId");
+                        String tipoPlanoStr = pagamentoDoc.getString("plano");
+                        if (usuarioId == null || tipoPlanoStr == null) {
+                                throw new IllegalStateException("Dados incompletos no pagamento");
+                        }
 
-                return assinaturaRef.getId();
+                        DocumentReference assinaturaRef = db
+                                        .collection(COLLECTION_ASSINATURAS)
+                                        .document(pagamentoId);
+                        Assinatura assinatura = new Assinatura(
+                                        assinaturaRef.getId(),
+                                        usuarioId,
+                                        pagamentoId,
+                                        LocalDate.now(),
+                                        TipoPlano.valueOf(tipoPlanoStr),
+                                        true);
+
+                        Map<String, Object> vinculo = new HashMap<>();
+                        vinculo.put("assinaturaId", assinaturaRef.getId());
+
+                        transacao.update(
+                                        pagamentoRef,
+                                        "status", Pagamento.StatusPagamento.APROVADO.name(),
+                                        "assinaturaId", assinaturaRef.getId());
+                        transacao.set(assinaturaRef, createSubscriptionData(assinatura));
+                        transacao.set(
+                                        db.collection(COLLECTION_USUARIOS).document(usuarioId),
+                                        vinculo,
+                                        SetOptions.merge());
+                        return assinatura;
+                };
         }
 
         /**
@@ -564,6 +867,103 @@ public class FirebaseService {
                 return data;
         }
 
+        /**
+         * Lista o vencimento dos pagamentos pendentes, lendo apenas o campo
+         * de vencimento
+         *
+         * @return Mapa do ID do pagamento para o seu vencimento
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static Map<String, Instant> listarVencimentosPendentes() {
+                checkInitialization();
+
+                try {
+                        Map<String, Instant> vencimentos = new HashMap<>();
+                        for (QueryDocumentSnapshot document : db.collection(COLLECTION_PAGAMENTOS)
+                                        .whereEqualTo("status", Pagamento.StatusPagamento.PENDENTE.name())
+                                        .select("vencimento")
+                                        .get()
+                                        .get()) {
+                                Timestamp vencimento = document.getTimestamp("vencimento");
+                                if (vencimento != null) {
+                                        vencimentos.put(document.getId(), vencimento.toDate().toInstant());
+                                }
+                        }
+                        return vencimentos;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao listar pagamentos pendentes", e);
+                        throw new FirebaseOperationException("Erro ao listar pagamentos pendentes", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Listagem de pagamentos pendentes interrompida", e);
+                }
+        }
+
+        /**
+         * Cancela os pagamentos vencidos que ainda estão pendentes.
+         *
+         * Cada grupo de até {@value #LIMITE_WRITE_BATCH} pagamentos é lido e
+         * atualizado em uma única transação, de modo que um pagamento aprovado
+         * depois de ter sido agendado para expirar não é cancelado.
+         *
+         * @param pagamentoIds IDs dos pagamentos com o prazo vencido
+         * @return Quantidade de pagamentos cancelados
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static int expirarPagamentos(Collection<String> pagamentoIds) {
+                checkInitialization();
+
+                List<DocumentReference> refs = new ArrayList<>(pagamentoIds.size());
+                for (String pagamentoId : pagamentoIds) {
+                        validatePaymentId(pagamentoId);
+                        refs.add(db.collection(COLLECTION_PAGAMENTOS).document(pagamentoId));
+                }
+
+                try {
+                        int cancelados = 0;
+                        for (int inicio = 0; inicio < refs.size(); inicio += LIMITE_WRITE_BATCH) {
+                                DocumentReference[] grupo = refs
+                                                .subList(inicio, Math.min(inicio + LIMITE_WRITE_BATCH, refs.size()))
+                                                .toArray(new DocumentReference[0]);
+                                cancelados += db.runTransaction(expirarPagamentosTransacao(grupo)).get();
+                        }
+                        return cancelados;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao expirar pagamentos", e);
+                        throw new FirebaseOperationException("Erro ao expirar pagamentos", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Expiração de pagamentos interrompida", e);
+                }
+        }
+
+        /**
+         * Transação de expiração: cancela os pagamentos do grupo que continuam
+         * pendentes e com o vencimento no passado
+         *
+         * @return Quantidade de pagamentos cancelados
+         */
+        private static Transaction.Function<Integer> expirarPagamentosTransacao(DocumentReference[] grupo) {
+                return transacao -> {
+                        Timestamp agora = Timestamp.now();
+                        int cancelados = 0;
+                        for (DocumentSnapshot doc : transacao.getAll(grupo).get()) {
+                                Timestamp vencimento = doc.getTimestamp("vencimento");
+                                if (doc.exists()
+                                                && Pagamento.StatusPagamento.PENDENTE.name().equals(doc.getString("status"))
+                                                && vencimento != null
+                                                && vencimento.compareTo(agora) <= 0) {
+                                        transacao.update(
+                                                        doc.getReference(),
+                                                        "status",
+                                                        Pagamento.StatusPagamento.CANCELADO.name());
+                                        cancelados++;
+                                }
+                        }
+                        return cancelados;
+                };
+        }
+
         /**
          * Valida o ID do pagamento
          */
@@ -671,13 +1071,15 @@ public class FirebaseService {
                         ativa = false;
                 }
 
-                return new Assinatura(
+                Assinatura assinatura = new Assinatura(
                                 doc.getString("id"),
                                 doc.getString("usuarioId"),
                                 doc.getString("pagamentoId"),
                                 inicio,
                                 TipoPlano.valueOf(tipoPlanoStr),
                                 ativa);
+                assinatura.setAvisoExpiracaoEnviado(Boolean.TRUE.equals(doc.getBoolean("avisoExpiracaoEnviado")));
+                return assinatura;
         }
 
         /**
@@ -691,7 +1093,9 @@ public class FirebaseService {
         }
 
         /**
-         * Verifica se um usuário possui assinatura ativa
+         * Verifica se um usuário possui assinatura ativa.
+         * Usuários consultados recentemente são respondidos pelo
+         * {@link CacheAssinaturas}, sem acesso ao Firestore.
          *
          * @param usuarioId ID do usuário
          * @return true se o usuário tem assinatura válida
@@ -701,10 +1105,16 @@ public class FirebaseService {
         public static boolean verificarAssinaturaAtiva(String usuarioId)
                         throws ExecutionException, InterruptedException {
                 validateUserId(usuarioId);
+
+                Boolean emCache = CacheAssinaturas.getInstance().consultar(usuarioId);
+                if (emCache != null) {
+                        return emCache;
+                }
+
                 checkInitialization();
 
                 logger.log(
-                                Level.INFO,
+                                Level.FINE,
                                 "Verificando assinatura ativa para usuário {0}",
                                 usuarioId);
 
@@ -712,16 +1122,18 @@ public class FirebaseService {
                         Usuario usuario = buscarUsuario(usuarioId);
                         if (usuario == null || usuario.getAssinaturaId() == null) {
                                 logger.log(
-                                                Level.INFO,
+                                                Level.FINE,
                                                 "Usuário {0} não possui assinatura ou não existe",
                                                 usuarioId);
+                                CacheAssinaturas.getInstance().registrar(usuarioId, null);
                                 return false;
                         }
 
                         Assinatura assinatura = buscarAssinatura(usuario.getAssinaturaId());
+                        CacheAssinaturas.getInstance().registrar(usuarioId, assinatura);
                         if (assinatura == null) {
                                 logger.log(
-                                                Level.INFO,
+                                                Level.FINE,
                                                 "Assinatura do usuário {0} não encontrada",
                                                 usuarioId);
                                 return false;
@@ -729,7 +1141,7 @@ public class FirebaseService {
 
                         boolean ativa = isSubscriptionActive(assinatura);
                         logger.log(
-                                        Level.INFO,
+                                        Level.FINE,
                                         "Status da assinatura para usuário {0}: {1}",
                                         new Object[] { usuarioId, ativa ? "ATIVA" : "INATIVA" });
 
@@ -775,6 +1187,8 @@ public class FirebaseService {
                                         .update("ativa", false)
                                         .get();
 
+                        CacheAssinaturas.getInstance().invalidarAssinatura(assinaturaId);
+
                         logger.log(
                                         Level.INFO,
                                         "Assinatura {0} cancelada com sucesso",
@@ -798,32 +1212,149 @@ public class FirebaseService {
                 }
         }
 
-        /*
-         * -----------------------------------------------------------
-         * OUTRAS OPERAÇÕES
-         * -----------------------------------------------------------
-         */
-
         /**
-         * Busca uma mensagem na coleção 'respostas'
+         * Lista uma página das assinaturas ativas com término anterior a uma
+         * data, ordenadas por {@code dataFim} e ID.
          *
-         * @param chave Chave da mensagem
-         * @return Mensagem encontrada ou null
+         * A consulta usa o índice composto (ativa, dataFim) da coleção de
+         * assinaturas e pagina por cursor, sem offset.
+         *
+         * @param limite  Data de término exclusiva
+         * @param apos    Última assinatura da página anterior ou null para
+         *                começar do início
+         * @param tamanho Quantidade máxima de assinaturas
+         * @return Assinaturas da página, vazia ao fim da consulta
+         * @throws FirebaseOperationException se houver erro na operação
          */
-        public static String buscarMensagem(String chave) {
-                validateMessageKey(chave);
+        public static List<Assinatura> listarPaginaAssinaturasAtivasAte(
+                        LocalDate limite,
+                        Assinatura apos,
+                        int tamanho) {
                 checkInitialization();
 
-                logger.log(Level.INFO, "Buscando mensagem com chave {0}", chave);
+                Query consulta = db.collection(COLLECTION_ASSINATURAS)
+                                .whereEqualTo("ativa", true)
+                                .whereLessThan("dataFim", inicioDoDia(limite))
+                                .orderBy("dataFim")
+                                .orderBy(FieldPath.documentId())
+                                .limit(tamanho);
+                if (apos != null) {
+                        consulta = consulta.startAfter(inicioDoDia(apos.getDataFim()), apos.getId());
+                }
 
                 try {
-                        DocumentReference docRef = db
-                                        .collection(COLLECTION_RESPOSTAS)
-                                        .document(chave);
-                        DocumentSnapshot document = docRef.get().get();
+                        List<Assinatura> assinaturas = new ArrayList<>(tamanho);
+                        for (QueryDocumentSnapshot document : consulta.get().get()) {
+                                if (hasRequiredSubscriptionFields(document)) {
+                                        Assinatura assinatura = createSubscriptionFromDocument(document);
+                                        // O cursor usa o ID do documento
+                                        assinatura.setId(document.getId());
+                                        assinaturas.add(assinatura);
+                                }
+                        }
+                        return assinaturas;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao listar assinaturas por término", e);
+                        throw new FirebaseOperationException("Erro ao listar assinaturas", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Listagem de assinaturas interrompida", e);
+                }
+        }
 
-                        if (document.exists()) {
-                                String mensagem = document.getString("mensagem");
+        /**
+         * Marca as assinaturas como inativas em escritas em lote e as remove
+         * do cache de assinaturas
+         *
+         * @param assinaturaIds IDs das assinaturas
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static void desativarAssinaturas(Collection<String> assinaturaIds) {
+                atualizarAssinaturasEmLote(assinaturaIds, "ativa", false);
+                assinaturaIds.forEach(CacheAssinaturas.getInstance()::invalidarAssinatura);
+        }
+
+        /**
+         * Registra que o aviso de expiração foi enviado, em escritas em lote
+         *
+         * @param assinaturaIds IDs das assinaturas avisadas
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static void marcarAvisosExpiracao(Collection<String> assinaturaIds) {
+                atualizarAssinaturasEmLote(assinaturaIds, "avisoExpiracaoEnviado", true);
+        }
+
+        /**
+         * Atualiza um campo das assinaturas em WriteBatches de até
+         * {@value #LIMITE_WRITE_BATCH} documentos
+         */
+        private static void atualizarAssinaturasEmLote(
+                        Collection<String> assinaturaIds,
+                        String campo,
+                        Object valor) {
+                if (assinaturaIds.isEmpty()) {
+                        return;
+                }
+                assinaturaIds.forEach(FirebaseService::validateSubscriptionId);
+                checkInitialization();
+
+                try {
+                        WriteBatch batch = db.batch();
+                        int operacoes = 0;
+                        for (String assinaturaId : assinaturaIds) {
+                                batch.update(db.collection(COLLECTION_ASSINATURAS).document(assinaturaId), campo, valor);
+                                if (++operacoes == LIMITE_WRITE_BATCH) {
+                                        batch.commit().get();
+                                        batch = db.batch();
+                                        operacoes = 0;
+                                }
+                        }
+                        if (operacoes > 0) {
+                                batch.commit().get();
+                        }
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao atualizar '" + campo + "' das assinaturas", e);
+                        throw new FirebaseOperationException("Erro ao atualizar assinaturas", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Atualização de assinaturas interrompida", e);
+                }
+        }
+
+        /**
+         * Converte uma data no Timestamp do início do dia, como as datas das
+         * assinaturas são gravadas
+         */
+        private static Timestamp inicioDoDia(LocalDate data) {
+                return Timestamp.of(Date.from(data.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+
+        /*
+         * -----------------------------------------------------------
+         * OUTRAS OPERAÇÕES
+         * -----------------------------------------------------------
+         */
+
+        /**
+         * Busca uma mensagem na coleção 'respostas'
+         *
+         * @param chave Chave da mensagem
+         * @return Mensagem encontrada ou null
+         */
+        public static String buscarMensagem(String chave) {
+                validateMessageKey(chave);
+                checkInitialization();
+
+                logger.log(Level.INFO, "Buscando mensagem com chave {0}", chave);
+
+                try {
+                        DocumentReference docRef = db
+                                        .collection(COLLECTION_RESPOSTAS)
+                                        .document(chave);
+                        DocumentSnapshot document = docRef.get().get();
+
+                        if (document.exists()) {
+                                String mensagem = document.getString("mensagem");
                                 logger.log(
                                                 Level.INFO,
                                                 "Mensagem com chave {0} encontrada",
@@ -852,6 +1383,89 @@ public class FirebaseService {
                 }
         }
 
+        /**
+         * Busca todas as mensagens da coleção 'respostas' em uma única consulta
+         *
+         * @return Mapa de chave para mensagem (vazio em caso de erro)
+         */
+        public static Map<String, String> buscarTodasMensagens() {
+                checkInitialization();
+
+                logger.log(Level.INFO, "Buscando todas as mensagens");
+
+                try {
+                        QuerySnapshot querySnapshot = db
+                                        .collection(COLLECTION_RESPOSTAS)
+                                        .get()
+                                        .get();
+
+                        Map<String, String> mensagens = new HashMap<>();
+                        for (QueryDocumentSnapshot document : querySnapshot) {
+                                String mensagem = document.getString("mensagem");
+                                if (mensagem != null) {
+                                        mensagens.put(document.getId(), mensagem);
+                                }
+                        }
+
+                        logger.log(Level.INFO, "{0} mensagens carregadas", mensagens.size());
+                        return mensagens;
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        logger.log(Level.SEVERE, "Busca de mensagens interrompida", e);
+                        return new HashMap<>();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao buscar todas as mensagens", e);
+                        return new HashMap<>();
+                } catch (Exception e) {
+                        logger.log(Level.SEVERE, "Erro inesperado ao buscar todas as mensagens", e);
+                        return new HashMap<>();
+                }
+        }
+
+        /**
+         * Escuta alterações na coleção 'respostas' em tempo real.
+         * O primeiro snapshot entrega todas as mensagens existentes; os seguintes
+         * entregam apenas os documentos criados, alterados ou removidos.
+         *
+         * @param ouvinte Receptor das alterações
+         * @return Registro do listener, usado para cancelá-lo
+         */
+        public static ListenerRegistration escutarMensagens(OuvinteMensagens ouvinte) {
+                if (ouvinte == null) {
+                        throw new IllegalArgumentException("Ouvinte não pode ser nulo");
+                }
+                checkInitialization();
+
+                logger.log(Level.INFO, "Registrando listener da coleção de mensagens");
+
+                return db.collection(COLLECTION_RESPOSTAS)
+                                .addSnapshotListener((snapshot, erro) -> {
+                                        if (erro != null) {
+                                                logger.log(
+                                                                Level.SEVERE,
+                                                                "Erro no listener da coleção de mensagens",
+                                                                erro);
+                                                ouvinte.aoFalhar(erro);
+                                                return;
+                                        }
+                                        if (snapshot == null) {
+                                                return;
+                                        }
+
+                                        for (DocumentChange alteracao : snapshot.getDocumentChanges()) {
+                                                String chave = alteracao.getDocument().getId();
+                                                if (alteracao.getType() == DocumentChange.Type.REMOVED) {
+                                                        ouvinte.aoRemover(chave);
+                                                } else {
+                                                        ouvinte.aoAlterar(
+                                                                        chave,
+                                                                        alteracao.getDocument().getString("mensagem"));
+                                                }
+                                        }
+                                        ouvinte.aoSincronizar();
+                                });
+        }
+
         /**
          * Valida a chave da mensagem
          */
@@ -885,16 +1499,7 @@ public class FirebaseService {
                 checkInitialization();
 
                 try {
-                        Map<String, Object> data = new HashMap<>();
-                        data.put("id", evento.getId());
-                        data.put("tipoEvento", evento.getTipoEvento());
-                        data.put("dataHora", Timestamp.of(
-                                        Date.from(evento.getDataHora().atZone(ZoneId.systemDefault()).toInstant())));
-
-                        // Adicione o ID do usuário se estiver disponível
-                        if (evento.getUsuarioId() != null) {
-                                data.put("usuarioId", evento.getUsuarioId());
-                        }
+                        Map<String, Object> data = createEventData(evento);
 
                         db.collection(COLLECTION_EVENTOS)
                                         .document(evento.getId())
@@ -913,9 +1518,68 @@ public class FirebaseService {
                 }
         }
 
+        /**
+         * Registra vários eventos em um único commit (WriteBatch).
+         * Os eventos devem ter ID, tipo e data/hora preenchidos.
+         *
+         * @param eventos Eventos a serem registrados (no máximo 500)
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static void registrarEventos(List<Evento> eventos) {
+                if (eventos == null || eventos.isEmpty()) {
+                        return;
+                }
+                if (eventos.size() > LIMITE_WRITE_BATCH) {
+                        throw new IllegalArgumentException(
+                                        "Lote de eventos excede o limite de " + LIMITE_WRITE_BATCH);
+                }
+                checkInitialization();
+
+                try {
+                        WriteBatch batch = db.batch();
+                        for (Evento evento : eventos) {
+                                batch.set(
+                                                db.collection(COLLECTION_EVENTOS).document(evento.getId()),
+                                                createEventData(evento));
+                        }
+                        batch.commit().get();
+
+                        logger.log(Level.INFO, "{0} eventos registrados em lote", eventos.size());
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao registrar lote de eventos", e);
+                        throw new FirebaseOperationException("Erro ao registrar lote de eventos", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Registro de eventos interrompido", e);
+                }
+        }
+
+        /**
+         * Cria o mapa de dados do evento para inserção no Firestore
+         */
+        private static Map<String, Object> createEventData(Evento evento) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("id", evento.getId());
+                data.put("tipoEvento", evento.getTipoEvento());
+                data.put("dataHora", Timestamp.of(
+                                Date.from(evento.getDataHora().atZone(ZoneId.systemDefault()).toInstant())));
+                // Campo da política de TTL da coleção: o Firestore apaga o evento após a data
+                data.put(Config.Retencao.CAMPO_EXPIRACAO, paraTimestamp(
+                                evento.getDataHora().plus(Config.Retencao.EXPIRACAO_EVENTOS)));
+
+                // Adicione o ID do usuário se estiver disponível
+                if (evento.getUsuarioId() != null) {
+                        data.put("usuarioId", evento.getUsuarioId());
+                }
+                return data;
+        }
+
         /**
          * Busca eventos por ID do usuário
-         * 
+         *
+         * Carrega todos os eventos do usuário em memória; para históricos
+         * grandes, use {@link #percorrerEventosPorUsuario}.
+         *
          * @param usuarioId ID do usuário
          * @return Lista de eventos do usuário
          * @throws ExecutionException   se houver erro na execução
@@ -935,27 +1599,799 @@ public class FirebaseService {
                                 .get();
 
                 for (QueryDocumentSnapshot document : querySnapshot) {
-                        Evento evento = new Evento();
-                        evento.setId(document.getString("id"));
-                        evento.setTipoEvento(document.getString("tipoEvento"));
-                        evento.setUsuarioId(document.getString("usuarioId"));
-
-                        Timestamp timestamp = document.get("dataHora", Timestamp.class);
-                        if (timestamp != null) {
-                                evento.setDataHora(timestamp.toDate().toInstant()
-                                                .atZone(ZoneId.systemDefault())
-                                                .toLocalDateTime());
+                        eventos.add(createEventFromDocument(document));
+                }
+
+                return eventos;
+        }
+
+        /**
+         * Percorre os eventos de um usuário em ordem de {@code dataHora}, lendo
+         * do Firestore em páginas de {@code Config.Eventos.TAMANHO_PAGINA_CONSULTA}.
+         *
+         * A paginação usa cursor ({@code startAfter} no último documento) e a
+         * página seguinte é pedida assim que a atual chega, de modo que no
+         * máximo duas páginas ficam em memória, qualquer que seja o tamanho do
+         * histórico. A consulta usa o índice composto (usuarioId, dataHora).
+         *
+         * O Stream deve ser fechado (try-with-resources) se não for consumido
+         * até o fim, para descartar a página pedida antecipadamente. Erros de
+         * leitura durante o consumo são lançados como
+         * {@link FirebaseOperationException}.
+         *
+         * @param usuarioId ID do usuário
+         * @param desde     Início do período (inclusivo) ou null para o início
+         *                  do histórico
+         * @param ate       Fim do período (exclusivo) ou null para sem limite
+         * @return Stream sequencial dos eventos do usuário
+         */
+        public static Stream<Evento> percorrerEventosPorUsuario(
+                        String usuarioId,
+                        LocalDateTime desde,
+                        LocalDateTime ate) {
+                validateUserId(usuarioId);
+                checkInitialization();
+
+                Query consulta = db.collection(COLLECTION_EVENTOS)
+                                .whereEqualTo("usuarioId", usuarioId);
+                if (desde != null) {
+                        consulta = consulta.whereGreaterThanOrEqualTo("dataHora", paraTimestamp(desde));
+                }
+                if (ate != null) {
+                        consulta = consulta.whereLessThan("dataHora", paraTimestamp(ate));
+                }
+                consulta = consulta
+                                .orderBy("dataHora")
+                                .limit(Config.Eventos.TAMANHO_PAGINA_CONSULTA);
+
+                PaginasEventos paginas = new PaginasEventos(consulta, Config.Eventos.TAMANHO_PAGINA_CONSULTA);
+                return StreamSupport.stream(
+                                Spliterators.spliteratorUnknownSize(
+                                                paginas,
+                                                Spliterator.ORDERED | Spliterator.NONNULL),
+                                false)
+                                .onClose(paginas::cancelar);
+        }
+
+        private static Timestamp paraTimestamp(LocalDateTime dataHora) {
+                return Timestamp.of(Date.from(dataHora.atZone(ZoneId.systemDefault()).toInstant()));
+        }
+
+        /**
+         * Cria um objeto Evento a partir de um DocumentSnapshot
+         */
+        private static Evento createEventFromDocument(DocumentSnapshot document) {
+                Evento evento = new Evento();
+                evento.setId(document.getString("id"));
+                evento.setTipoEvento(document.getString("tipoEvento"));
+                evento.setUsuarioId(document.getString("usuarioId"));
+
+                Timestamp timestamp = document.get("dataHora", Timestamp.class);
+                if (timestamp != null) {
+                        evento.setDataHora(timestamp.toDate().toInstant()
+                                        .atZone(ZoneId.systemDefault())
+                                        .toLocalDateTime());
+                } else {
+                        // Se a data/hora for nula, usar a data/hora atual como fallback
+                        evento.setDataHora(LocalDateTime.now());
+                        logger.log(Level.WARNING, "Evento {0} sem data/hora, usando data atual como fallback",
+                                        document.getId());
+                }
+                return evento;
+        }
+
+        /*
+         * -----------------------------------------------------------
+         * OPERAÇÕES DE TRANSMISSÃO
+         * -----------------------------------------------------------
+         */
+
+        /**
+         * Salva o estado de uma transmissão, sobrescrevendo o anterior
+         *
+         * @param transmissao Transmissão a ser salva
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static void salvarTransmissao(Transmissao transmissao) {
+                if (transmissao == null || transmissao.getId() == null || transmissao.getId().trim().isEmpty()) {
+                        throw new IllegalArgumentException("Transmissão e seu ID são obrigatórios");
+                }
+                checkInitialization();
+
+                try {
+                        db.collection(COLLECTION_TRANSMISSOES)
+                                        .document(transmissao.getId())
+                                        .set(createBroadcastData(transmissao))
+                                        .get();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao salvar transmissão " + transmissao.getId(), e);
+                        throw new FirebaseOperationException("Erro ao salvar transmissão", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Gravação da transmissão interrompida", e);
+                }
+        }
+
+        /**
+         * Busca uma transmissão pelo ID
+         *
+         * @param transmissaoId ID da transmissão
+         * @return Transmissao ou null se não encontrada
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static Transmissao buscarTransmissao(String transmissaoId) {
+                if (transmissaoId == null || transmissaoId.trim().isEmpty()) {
+                        throw new IllegalArgumentException("ID da transmissão é obrigatório");
+                }
+                checkInitialization();
+
+                try {
+                        DocumentSnapshot document = db.collection(COLLECTION_TRANSMISSOES)
+                                        .document(transmissaoId)
+                                        .get()
+                                        .get();
+                        return document.exists() ? createBroadcastFromDocument(document) : null;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao buscar transmissão " + transmissaoId, e);
+                        throw new FirebaseOperationException("Erro ao buscar transmissão", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Busca da transmissão interrompida", e);
+                }
+        }
+
+        /**
+         * Lista as transmissões que não foram concluídas nem canceladas
+         *
+         * @return Transmissões em andamento
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static List<Transmissao> listarTransmissoesEmAndamento() {
+                checkInitialization();
+
+                try {
+                        List<Transmissao> transmissoes = new ArrayList<>();
+                        for (QueryDocumentSnapshot document : db.collection(COLLECTION_TRANSMISSOES)
+                                        .whereEqualTo("status", Transmissao.StatusTransmissao.EM_ANDAMENTO.name())
+                                        .get()
+                                        .get()) {
+                                transmissoes.add(createBroadcastFromDocument(document));
+                        }
+                        return transmissoes;
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao listar transmissões em andamento", e);
+                        throw new FirebaseOperationException("Erro ao listar transmissões", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Listagem de transmissões interrompida", e);
+                }
+        }
+
+        /**
+         * Assume a execução de uma transmissão em andamento, se nenhuma outra
+         * instância tiver uma concessão válida sobre ela
+         *
+         * @param transmissaoId ID da transmissão
+         * @param donoId        ID da instância que vai executá-la
+         * @param duracao       Validade da concessão
+         * @return Transmissão com o último progresso salvo ou null se ela não
+         *         estiver mais em andamento ou pertencer a outra instância
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static Transmissao reivindicarTransmissao(String transmissaoId, String donoId, Duration duracao) {
+                if (transmissaoId == null || transmissaoId.trim().isEmpty() || donoId == null) {
+                        throw new IllegalArgumentException("ID da transmissão e do dono são obrigatórios");
+                }
+                checkInitialization();
+
+                try {
+                        return db.runTransaction(reivindicarTransmissaoTransacao(transmissaoId, donoId, duracao)).get();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao reivindicar transmissão " + transmissaoId, e);
+                        throw new FirebaseOperationException("Erro ao reivindicar transmissão", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Reivindicação da transmissão interrompida", e);
+                }
+        }
+
+        private static Transaction.Function<Transmissao> reivindicarTransmissaoTransacao(
+                        String transmissaoId, String donoId, Duration duracao) {
+                return transacao -> {
+                        DocumentReference ref = db.collection(COLLECTION_TRANSMISSOES).document(transmissaoId);
+                        DocumentSnapshot doc = transacao.get(ref).get();
+                        if (!doc.exists() || !Transmissao.StatusTransmissao.EM_ANDAMENTO.name()
+                                        .equals(doc.getString("status"))) {
+                                return null;
+                        }
+
+                        String donoAtual = doc.getString("donoId");
+                        Timestamp concessaoAte = doc.getTimestamp("concessaoAte");
+                        if (donoAtual != null && !donoAtual.equals(donoId)
+                                        && concessaoAte != null && concessaoAte.compareTo(Timestamp.now()) > 0) {
+                                return null;
+                        }
+
+                        Transmissao transmissao = createBroadcastFromDocument(doc);
+                        transmissao.setDonoId(donoId);
+                        transmissao.setConcessaoAte(LocalDateTime.now().plus(duracao));
+                        transacao.update(ref,
+                                        "donoId", donoId,
+                                        "concessaoAte", paraTimestamp(transmissao.getConcessaoAte()));
+                        return transmissao;
+                };
+        }
+
+        /**
+         * Salva o progresso de uma transmissão se a instância ainda for a dona
+         * dela e ela continuar em andamento no Firestore. Em andamento, a
+         * concessão é renovada por mais {@code duracao}; concluída, é liberada.
+         *
+         * @param transmissao Transmissão com o progresso e o {@code donoId}
+         * @param duracao     Nova validade da concessão
+         * @return false se a transmissão foi cancelada ou assumida por outra
+         *         instância; nada é gravado nesse caso
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static boolean salvarProgressoTransmissao(Transmissao transmissao, Duration duracao) {
+                if (transmissao == null || transmissao.getId() == null || transmissao.getDonoId() == null) {
+                        throw new IllegalArgumentException("Transmissão, seu ID e seu dono são obrigatórios");
+                }
+                checkInitialization();
+
+                try {
+                        return db.runTransaction(salvarProgressoTransmissaoTransacao(transmissao, duracao)).get();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao salvar progresso da transmissão " + transmissao.getId(), e);
+                        throw new FirebaseOperationException("Erro ao salvar progresso da transmissão", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Gravação do progresso da transmissão interrompida", e);
+                }
+        }
+
+        private static Transaction.Function<Boolean> salvarProgressoTransmissaoTransacao(
+                        Transmissao transmissao, Duration duracao) {
+                return transacao -> {
+                        DocumentReference ref = db.collection(COLLECTION_TRANSMISSOES).document(transmissao.getId());
+                        DocumentSnapshot doc = transacao.get(ref).get();
+                        if (!doc.exists()
+                                        || !Transmissao.StatusTransmissao.EM_ANDAMENTO.name().equals(doc.getString("status"))
+                                        || !transmissao.getDonoId().equals(doc.getString("donoId"))) {
+                                return false;
+                        }
+
+                        Map<String, Object> data = createBroadcastData(transmissao);
+                        if (transmissao.getStatus() == Transmissao.StatusTransmissao.EM_ANDAMENTO) {
+                                data.put("concessaoAte", paraTimestamp(LocalDateTime.now().plus(duracao)));
                         } else {
-                                // Se a data/hora for nula, usar a data/hora atual como fallback
-                                evento.setDataHora(LocalDateTime.now());
-                                logger.log(Level.WARNING, "Evento {0} sem data/hora, usando data atual como fallback",
-                                                document.getId());
+                                data.put("donoId", null);
+                                data.put("concessaoAte", null);
                         }
+                        transacao.set(ref, data);
+                        return true;
+                };
+        }
 
-                        eventos.add(evento);
+        /**
+         * Cancela uma transmissão em andamento e libera sua concessão. A
+         * instância que a executa para ao tentar salvar o próximo progresso.
+         *
+         * @param transmissaoId ID da transmissão
+         * @return false se a transmissão não existir ou não estiver em andamento
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static boolean cancelarTransmissao(String transmissaoId) {
+                if (transmissaoId == null || transmissaoId.trim().isEmpty()) {
+                        throw new IllegalArgumentException("ID da transmissão é obrigatório");
                 }
+                checkInitialization();
 
-                return eventos;
+                try {
+                        return db.runTransaction(cancelarTransmissaoTransacao(transmissaoId)).get();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao cancelar transmissão " + transmissaoId, e);
+                        throw new FirebaseOperationException("Erro ao cancelar transmissão", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Cancelamento da transmissão interrompido", e);
+                }
+        }
+
+        private static Transaction.Function<Boolean> cancelarTransmissaoTransacao(String transmissaoId) {
+                return transacao -> {
+                        DocumentReference ref = db.collection(COLLECTION_TRANSMISSOES).document(transmissaoId);
+                        DocumentSnapshot doc = transacao.get(ref).get();
+                        if (!doc.exists() || !Transmissao.StatusTransmissao.EM_ANDAMENTO.name()
+                                        .equals(doc.getString("status"))) {
+                                return false;
+                        }
+
+                        Map<String, Object> data = new HashMap<>();
+                        data.put("status", Transmissao.StatusTransmissao.CANCELADA.name());
+                        data.put("donoId", null);
+                        data.put("concessaoAte", null);
+                        data.put("atualizadaEm", Timestamp.now());
+                        transacao.update(ref, data);
+                        return true;
+                };
+        }
+
+        /**
+         * Cria o mapa de dados da transmissão para inserção no Firestore
+         */
+        private static Map<String, Object> createBroadcastData(Transmissao transmissao) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("id", transmissao.getId());
+                data.put("texto", transmissao.getTexto());
+                data.put("ultimoUsuarioId", transmissao.getUltimoUsuarioId());
+                data.put("enviadas", transmissao.getEnviadas());
+                data.put("falhas", transmissao.getFalhas());
+                data.put("status", transmissao.getStatus().name());
+                data.put("iniciadaEm", Timestamp.of(
+                                Date.from(transmissao.getIniciadaEm().atZone(ZoneId.systemDefault()).toInstant())));
+                data.put("atualizadaEm", Timestamp.of(
+                                Date.from(transmissao.getAtualizadaEm().atZone(ZoneId.systemDefault()).toInstant())));
+                data.put("donoId", transmissao.getDonoId());
+                data.put("concessaoAte", transmissao.getConcessaoAte() != null
+                                ? paraTimestamp(transmissao.getConcessaoAte())
+                                : null);
+                return data;
+        }
+
+        /**
+         * Cria um objeto Transmissao a partir de um DocumentSnapshot
+         */
+        private static Transmissao createBroadcastFromDocument(DocumentSnapshot document) {
+                Transmissao transmissao = new Transmissao(document.getId(), document.getString("texto"));
+                transmissao.setUltimoUsuarioId(document.getString("ultimoUsuarioId"));
+                transmissao.setEnviadas(Objects.requireNonNullElse(document.getLong("enviadas"), 0L));
+                transmissao.setFalhas(Objects.requireNonNullElse(document.getLong("falhas"), 0L));
+                transmissao.setStatus(Transmissao.StatusTransmissao.valueOf(document.getString("status")));
+
+                Timestamp iniciadaEm = document.getTimestamp("iniciadaEm");
+                if (iniciadaEm != null) {
+                        transmissao.setIniciadaEm(LocalDateTime.ofInstant(
+                                        iniciadaEm.toDate().toInstant(), ZoneId.systemDefault()));
+                }
+                Timestamp atualizadaEm = document.getTimestamp("atualizadaEm");
+                if (atualizadaEm != null) {
+                        transmissao.setAtualizadaEm(LocalDateTime.ofInstant(
+                                        atualizadaEm.toDate().toInstant(), ZoneId.systemDefault()));
+                }
+                transmissao.setDonoId(document.getString("donoId"));
+                Timestamp concessaoAte = document.getTimestamp("concessaoAte");
+                if (concessaoAte != null) {
+                        transmissao.setConcessaoAte(LocalDateTime.ofInstant(
+                                        concessaoAte.toDate().toInstant(), ZoneId.systemDefault()));
+                }
+                return transmissao;
+        }
+
+        /*
+         * -----------------------------------------------------------
+         * OPERAÇÕES DE RETENÇÃO
+         * -----------------------------------------------------------
+         */
+
+        /**
+         * Compacta uma página dos eventos anteriores ao corte: soma os eventos
+         * em resumos diários por usuário e apaga os eventos originais.
+         *
+         * Os incrementos dos resumos e as exclusões vão no mesmo WriteBatch,
+         * que é atômico: uma falha no meio não deixa eventos contados no
+         * resumo e ainda presentes na coleção, o que os contaria de novo na
+         * próxima execução. Como os eventos são apagados, a página seguinte é
+         * lida pela mesma consulta.
+         *
+         * @param corte  Eventos com {@code dataHora} anterior são compactados
+         * @param limite Eventos por página; com os resumos, a página usa até o
+         *               dobro de escritas, no máximo {@value #LIMITE_WRITE_BATCH}
+         * @return Quantidade de escritas feitas, 0 quando não há mais eventos
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static int compactarEventosAntigos(LocalDateTime corte, int limite) {
+                if (limite <= 0 || limite * 2 > LIMITE_WRITE_BATCH) {
+                        throw new IllegalArgumentException(
+                                        "Limite deve estar entre 1 e " + LIMITE_WRITE_BATCH / 2);
+                }
+                checkInitialization();
+
+                try {
+                        List<QueryDocumentSnapshot> eventos = db.collection(COLLECTION_EVENTOS)
+                                        .whereLessThan("dataHora", paraTimestamp(corte))
+                                        .orderBy("dataHora")
+                                        .limit(limite)
+                                        .get()
+                                        .get()
+                                        .getDocuments();
+                        if (eventos.isEmpty()) {
+                                return 0;
+                        }
+
+                        // Contagem por resumo (usuário e dia) e por tipo de evento
+                        Map<String, Map<String, Long>> contagens = new HashMap<>();
+                        Map<String, Object[]> chaves = new HashMap<>();
+                        WriteBatch batch = db.batch();
+                        for (QueryDocumentSnapshot evento : eventos) {
+                                String usuarioId = evento.getString("usuarioId");
+                                LocalDate dia = evento.getTimestamp("dataHora")
+                                                .toDate()
+                                                .toInstant()
+                                                .atZone(ZoneId.systemDefault())
+                                                .toLocalDate();
+                                String tipo = tipoResumido(evento.getString("tipoEvento"));
+                                String resumoId = (usuarioId != null ? usuarioId : "sem_usuario") + "_" + dia;
+
+                                chaves.putIfAbsent(resumoId, new Object[] { usuarioId, dia });
+                                contagens.computeIfAbsent(resumoId, id -> new HashMap<>())
+                                                .merge(tipo, 1L, Long::sum);
+                                batch.delete(evento.getReference());
+                        }
+
+                        for (Map.Entry<String, Map<String, Long>> resumo : contagens.entrySet()) {
+                                Object[] chave = chaves.get(resumo.getKey());
+                                Map<String, Object> tipos = new HashMap<>();
+                                long total = 0;
+                                for (Map.Entry<String, Long> tipo : resumo.getValue().entrySet()) {
+                                        tipos.put(tipo.getKey(), FieldValue.increment(tipo.getValue()));
+                                        total += tipo.getValue();
+                                }
+
+                                Map<String, Object> data = new HashMap<>();
+                                if (chave[0] != null) {
+                                        data.put("usuarioId", chave[0]);
+                                }
+                                data.put("data", inicioDoDia((LocalDate) chave[1]));
+                                data.put("total", FieldValue.increment(total));
+                                data.put("tipos", tipos);
+                                batch.set(
+                                                db.collection(COLLECTION_RESUMOS_EVENTOS).document(resumo.getKey()),
+                                                data,
+                                                SetOptions.merge());
+                        }
+
+                        batch.commit().get();
+                        return eventos.size() + contagens.size();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao compactar eventos antigos", e);
+                        throw new FirebaseOperationException("Erro ao compactar eventos", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Compactação de eventos interrompida", e);
+                }
+        }
+
+        /**
+         * Tipo usado como chave nos resumos. Eventos de comando guardam o
+         * texto inteiro da mensagem ("/start abc123", "/help@NomeDoBot"),
+         * então só o nome do comando é mantido, em minúsculas como no
+         * roteamento; sem isso cada payload viraria um campo do resumo.
+         */
+        private static String tipoResumido(String tipo) {
+                if (tipo == null || tipo.isEmpty()) {
+                        return "desconhecido";
+                }
+                if (!tipo.startsWith("/")) {
+                        return tipo;
+                }
+                int fim = 1;
+                while (fim < tipo.length() && tipo.charAt(fim) != '@'
+                                && !Character.isWhitespace(tipo.charAt(fim))) {
+                        fim++;
+                }
+                return tipo.substring(0, fim).toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Apaga uma página das mensagens com {@code dataEnvio} anterior ao corte
+         *
+         * @param corte  Data limite de retenção
+         * @param limite Mensagens por página, no máximo {@value #LIMITE_WRITE_BATCH}
+         * @return Quantidade de mensagens apagadas, 0 quando não há mais
+         * @throws FirebaseOperationException se houver erro na operação
+         */
+        public static int removerMensagensAntigas(LocalDateTime corte, int limite) {
+                if (limite <= 0 || limite > LIMITE_WRITE_BATCH) {
+                        throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_WRITE_BATCH);
+                }
+                checkInitialization();
+
+                try {
+                        List<QueryDocumentSnapshot> mensagens = db.collection(COLLECTION_MENSAGENS)
+                                        .whereLessThan("dataEnvio", paraTimestamp(corte))
+                                        .orderBy("dataEnvio")
+                                        .select(FieldPath.documentId())
+                                        .limit(limite)
+                                        .get()
+                                        .get()
+                                        .getDocuments();
+                        if (mensagens.isEmpty()) {
+                                return 0;
+                        }
+
+                        WriteBatch batch = db.batch();
+                        for (QueryDocumentSnapshot mensagem : mensagens) {
+                                batch.delete(mensagem.getReference());
+                        }
+                        batch.commit().get();
+                        return mensagens.size();
+                } catch (ExecutionException e) {
+                        logger.log(Level.SEVERE, "Erro ao remover mensagens antigas", e);
+                        throw new FirebaseOperationException("Erro ao remover mensagens", e);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new FirebaseOperationException("Remoção de mensagens interrompida", e);
+                }
+        }
+
+        /*
+         * -----------------------------------------------------------
+         * OPERAÇÕES ASSÍNCRONAS
+         * -----------------------------------------------------------
+         *
+         * Variantes não bloqueantes das operações acima. Os futures do
+         * Firestore são encadeados sem ocupar threads à espera; as falhas
+         * completam o CompletableFuture com FirebaseOperationException.
+         */
+
+        /**
+         * Busca um usuário pelo ID sem bloquear
+         *
+         * @param usuarioId ID do usuário
+         * @return Future com o Usuario ou null se não encontrado
+         */
+        public static CompletableFuture<Usuario> buscarUsuarioAsync(String usuarioId) {
+                validateUserId(usuarioId);
+                checkInitialization();
+
+                return toCompletableFuture(
+                                db.collection(COLLECTION_USUARIOS).document(usuarioId).get(),
+                                "Erro ao buscar usuário " + usuarioId)
+                                .thenApply(doc -> doc.exists() ? createUserFromDocument(doc) : null);
+        }
+
+        /**
+         * Cria um novo registro de pagamento sem bloquear
+         *
+         * @param pagamento Objeto Pagamento com os dados
+         * @return Future com o ID do pagamento criado
+         */
+        public static CompletableFuture<String> criarPagamentoAsync(Pagamento pagamento) {
+                validatePayment(pagamento);
+                checkInitialization();
+
+                DocumentReference ref = db
+                                .collection(COLLECTION_PAGAMENTOS)
+                                .document(pagamento.getId());
+                return toCompletableFuture(
+                                ref.set(createPaymentData(pagamento)),
+                                "Erro ao criar pagamento " + pagamento.getId())
+                                .thenApply(resultado -> {
+                                        ExpiradorPagamentos.getInstance().agendar(
+                                                        pagamento.getId(),
+                                                        pagamento.getVencimento());
+                                        return ref.getId();
+                                });
+        }
+
+        /**
+         * Confirma um pagamento e cria a assinatura correspondente sem bloquear,
+         * usando a mesma transação idempotente de {@link #confirmarPagamento}
+         *
+         * @param pagamentoId ID do pagamento a ser confirmado
+         * @return Future com true quando a assinatura estiver vinculada ao usuário
+         */
+        public static CompletableFuture<Boolean> confirmarPagamentoAsync(String pagamentoId) {
+                validatePaymentId(pagamentoId);
+                checkInitialization();
+
+                return toCompletableFuture(
+                                db.runTransaction(confirmarPagamentoTransacao(pagamentoId)),
+                                "Erro ao confirmar pagamento " + pagamentoId)
+                                .thenApply(assinatura -> {
+                                        CacheAssinaturas.getInstance().registrar(
+                                                        assinatura.getUsuarioId(),
+                                                        assinatura);
+                                        return true;
+                                });
+        }
+
+        /**
+         * Busca uma assinatura pelo ID sem bloquear
+         *
+         * @param assinaturaId ID da assinatura
+         * @return Future com a Assinatura ou null se não encontrada
+         */
+        public static CompletableFuture<Assinatura> buscarAssinaturaAsync(String assinaturaId) {
+                validateSubscriptionId(assinaturaId);
+                checkInitialization();
+
+                return toCompletableFuture(
+                                db.collection(COLLECTION_ASSINATURAS).document(assinaturaId).get(),
+                                "Erro ao buscar assinatura " + assinaturaId)
+                                .thenApply(doc -> doc.exists() && hasRequiredSubscriptionFields(doc)
+                                                ? createSubscriptionFromDocument(doc)
+                                                : null);
+        }
+
+        /**
+         * Verifica se um usuário possui assinatura ativa sem bloquear
+         *
+         * @param usuarioId ID do usuário
+         * @return Future com true se o usuário tem assinatura válida
+         */
+        public static CompletableFuture<Boolean> verificarAssinaturaAtivaAsync(String usuarioId) {
+                validateUserId(usuarioId);
+
+                Boolean emCache = CacheAssinaturas.getInstance().consultar(usuarioId);
+                if (emCache != null) {
+                        return CompletableFuture.completedFuture(emCache);
+                }
+
+                return buscarUsuarioAsync(usuarioId)
+                                .thenCompose(usuario -> {
+                                        if (usuario == null || usuario.getAssinaturaId() == null) {
+                                                CacheAssinaturas.getInstance().registrar(usuarioId, null);
+                                                return CompletableFuture.completedFuture(false);
+                                        }
+                                        return buscarAssinaturaAsync(usuario.getAssinaturaId())
+                                                        .thenApply(assinatura -> {
+                                                                CacheAssinaturas.getInstance()
+                                                                                .registrar(usuarioId, assinatura);
+                                                                return assinatura != null
+                                                                                && isSubscriptionActive(assinatura);
+                                                        });
+                                });
+        }
+
+        /**
+         * Busca eventos por ID do usuário sem bloquear
+         *
+         * @param usuarioId ID do usuário
+         * @return Future com a lista de eventos do usuário
+         */
+        public static CompletableFuture<List<Evento>> buscarEventosPorUsuarioAsync(String usuarioId) {
+                validateUserId(usuarioId);
+                checkInitialization();
+
+                return toCompletableFuture(
+                                db.collection(COLLECTION_EVENTOS).whereEqualTo("usuarioId", usuarioId).get(),
+                                "Erro ao buscar eventos do usuário " + usuarioId)
+                                .thenApply(querySnapshot -> {
+                                        List<Evento> eventos = new ArrayList<>();
+                                        for (QueryDocumentSnapshot document : querySnapshot) {
+                                                eventos.add(createEventFromDocument(document));
+                                        }
+                                        return eventos;
+                                });
+        }
+
+        /**
+         * Busca uma mensagem na coleção 'respostas' sem bloquear
+         *
+         * @param chave Chave da mensagem
+         * @return Future com a mensagem encontrada ou null
+         */
+        public static CompletableFuture<String> buscarMensagemAsync(String chave) {
+                validateMessageKey(chave);
+                checkInitialization();
+
+                return toCompletableFuture(
+                                db.collection(COLLECTION_RESPOSTAS).document(chave).get(),
+                                "Erro ao buscar mensagem com chave " + chave)
+                                .thenApply(document -> document.exists() ? document.getString("mensagem") : null);
+        }
+
+        /**
+         * Converte um ApiFuture do Firestore em CompletableFuture, completando-o
+         * na própria thread do Firestore
+         */
+        private static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture, String mensagemErro) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+                        @Override
+                        public void onSuccess(T resultado) {
+                                future.complete(resultado);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable erro) {
+                                logger.log(Level.SEVERE, mensagemErro, erro);
+                                future.completeExceptionally(new FirebaseOperationException(mensagemErro, erro));
+                        }
+                }, MoreExecutors.directExecutor());
+                return future;
+        }
+
+        /**
+         * Iterador dos eventos de uma consulta paginada por cursor, com a
+         * próxima página pedida antes de a atual ser consumida
+         */
+        private static final class PaginasEventos implements Iterator<Evento> {
+                private final Query consulta;
+                private final int tamanhoPagina;
+
+                private List<QueryDocumentSnapshot> pagina = List.of();
+                private int posicao;
+                private ApiFuture<QuerySnapshot> proxima;
+
+                PaginasEventos(Query consulta, int tamanhoPagina) {
+                        this.consulta = consulta;
+                        this.tamanhoPagina = tamanhoPagina;
+                        this.proxima = consulta.get();
+                }
+
+                @Override
+                public boolean hasNext() {
+                        while (posicao >= pagina.size()) {
+                                if (proxima == null) {
+                                        return false;
+                                }
+                                pagina = aguardar(proxima).getDocuments();
+                                posicao = 0;
+                                // Página incompleta: era a última
+                                proxima = pagina.size() < tamanhoPagina
+                                                ? null
+                                                : consulta.startAfter(pagina.get(pagina.size() - 1)).get();
+                        }
+                        return true;
+                }
+
+                @Override
+                public Evento next() {
+                        if (!hasNext()) {
+                                throw new NoSuchElementException();
+                        }
+                        return createEventFromDocument(pagina.get(posicao++));
+                }
+
+                void cancelar() {
+                        if (proxima != null) {
+                                proxima.cancel(true);
+                                proxima = null;
+                        }
+                        pagina = List.of();
+                        posicao = 0;
+                }
+
+                private static QuerySnapshot aguardar(ApiFuture<QuerySnapshot> futuro) {
+                        try {
+                                return futuro.get();
+                        } catch (ExecutionException e) {
+                                logger.log(Level.SEVERE, "Erro ao ler página de eventos", e);
+                                throw new FirebaseOperationException("Erro ao buscar eventos", e);
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new FirebaseOperationException("Busca de eventos interrompida", e);
+                        }
+                }
+        }
+
+        /**
+         * Receptor das alterações da coleção 'respostas'
+         */
+        public interface OuvinteMensagens {
+
+                /**
+                 * Mensagem criada ou alterada (null se o documento não tiver o campo)
+                 */
+                void aoAlterar(String chave, String mensagem);
+
+                /**
+                 * Mensagem removida da coleção
+                 */
+                void aoRemover(String chave);
+
+                /**
+                 * Todas as alterações do snapshot foram entregues
+                 */
+                void aoSincronizar();
+
+                /**
+                 * O listener falhou e não receberá novas alterações
+                 */
+                void aoFalhar(Exception erro);
         }
 
         /*
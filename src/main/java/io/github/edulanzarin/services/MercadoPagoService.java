@@ -1,5 +1,416 @@
 package io.github.edulanzarin.services;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.TipoPlano;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cliente da API de pagamentos do Mercado Pago, usado para gerar cobranças
+ * PIX e consultar a situação dos pagamentos.
+ *
+ * Um único {@link HttpClient} (HTTP/2, com reaproveitamento de conexões) é
+ * compartilhado por todas as requisições, que são feitas de forma
+ * assíncrona. Falhas de rede, 429 e 5xx são repetidas até
+ * {@code Config.App.MAX_RETRY_ATTEMPTS} vezes, com espera inicial de
+ * {@code Config.App.INITIAL_RETRY_DELAY} multiplicada por
+ * {@code Config.App.RETRY_MULTIPLIER} a cada tentativa. O
+ * {@code X-Idempotency-Key} é derivado do usuário, do plano e da janela de
+ * {@code Config.MercadoPago.JANELA_IDEMPOTENCIA}: as repetições e os cliques
+ * repetidos no mesmo plano dentro da janela recebem a mesma cobrança em vez de
+ * gerar uma segunda.
+ *
+ * Variáveis de ambiente: {@code MERCADOPAGO_ACCESS_TOKEN} (obrigatória para
+ * gerar cobranças), {@code MERCADOPAGO_URL_BASE} (permite apontar para um
+ * servidor local de testes) e {@code MERCADOPAGO_EMAIL_PAGADOR} (e-mail
+ * informado como pagador, já que o Telegram não fornece o e-mail do usuário).
+ */
 public class MercadoPagoService {
 
+    private static final Logger logger = Logger.getLogger(MercadoPagoService.class.getName());
+
+    private static final MercadoPagoService instance = new MercadoPagoService();
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern(
+            "yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+    private static final char SEPARADOR_REFERENCIA = ':';
+
+    private final HttpClient cliente;
+
+    private MercadoPagoService() {
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Config.MercadoPago.TIMEOUT_CONEXAO)
+                .build();
+    }
+
+    public static MercadoPagoService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Gera uma cobrança PIX para o plano, sem bloquear.
+     *
+     * @param usuarioId ID do usuário que está comprando
+     * @param plano     Plano escolhido
+     * @return Future com a cobrança criada; falha com
+     *         {@link MercadoPagoException} se a API recusar ou as tentativas
+     *         se esgotarem
+     */
+    public CompletableFuture<CobrancaPix> criarCobrancaPixAsync(String usuarioId, TipoPlano plano) {
+        if (usuarioId == null || usuarioId.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID do usuário é obrigatório");
+        }
+        if (plano == null) {
+            throw new IllegalArgumentException("Plano é obrigatório");
+        }
+
+        String token = tokenAcesso();
+        if (token == null) {
+            return CompletableFuture.failedFuture(tokenAusente());
+        }
+
+        LocalDateTime vencimento = LocalDateTime.now().plus(Config.Pagamento.TEMPO_EXPIRACAO_PADRAO);
+        String chaveIdempotencia = chaveIdempotencia(usuarioId, plano, System.currentTimeMillis());
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(urlBase() + Config.MercadoPago.CAMINHO_PAGAMENTOS))
+                .timeout(Config.MercadoPago.TIMEOUT_REQUISICAO)
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .header("X-Idempotency-Key", chaveIdempotencia)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        criarCorpoPix(usuarioId, plano, vencimento).toString(), StandardCharsets.UTF_8))
+                .build();
+
+        return enviar(requisicao, 1)
+                .thenApply(corpo -> criarCobrancaDaResposta(corpo, vencimento))
+                .whenComplete((cobranca, erro) -> {
+                    if (erro == null) {
+                        logger.log(Level.INFO, "Cobrança PIX {0} criada para o usuário {1}",
+                                new Object[] { cobranca.getPagamentoId(), usuarioId });
+                    } else {
+                        logger.log(Level.SEVERE, "Erro ao criar cobrança PIX para o usuário " + usuarioId, erro);
+                    }
+                });
+    }
+
+    /**
+     * Consulta a situação atual de um pagamento, sem bloquear. As
+     * notificações do Mercado Pago só informam que o pagamento mudou; o
+     * status deve ser lido da API antes de qualquer confirmação.
+     *
+     * @param pagamentoId ID do pagamento no Mercado Pago
+     * @return Future com a situação do pagamento; falha com
+     *         {@link MercadoPagoException} se a API recusar ou as tentativas
+     *         se esgotarem
+     */
+    public CompletableFuture<SituacaoPagamento> consultarPagamentoAsync(String pagamentoId) {
+        if (pagamentoId == null || pagamentoId.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID do pagamento é obrigatório");
+        }
+
+        String token = tokenAcesso();
+        if (token == null) {
+            return CompletableFuture.failedFuture(tokenAusente());
+        }
+
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(urlBase() + Config.MercadoPago.CAMINHO_PAGAMENTOS
+                + "/" + URLEncoder.encode(pagamentoId.trim(), StandardCharsets.UTF_8)))
+                .timeout(Config.MercadoPago.TIMEOUT_REQUISICAO)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        return enviar(requisicao, 1).thenApply(MercadoPagoService::criarSituacaoDaResposta);
+    }
+
+    /**
+     * Envia a requisição, repetindo falhas transitórias com backoff
+     * exponencial sem ocupar threads durante a espera.
+     */
+    private CompletableFuture<String> enviar(HttpRequest requisicao, int tentativa) {
+        return cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .handle((resposta, erro) -> {
+                    Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                            ? erro.getCause()
+                            : erro;
+
+                    if (causa == null && resposta.statusCode() / 100 == 2) {
+                        return CompletableFuture.completedFuture(resposta.body());
+                    }
+
+                    boolean transitoria = causa instanceof IOException
+                            || (causa == null && (resposta.statusCode() == 429 || resposta.statusCode() >= 500));
+                    String descricao = causa != null
+                            ? causa.getMessage()
+                            : "HTTP " + resposta.statusCode() + ": " + resposta.body();
+
+                    if (!transitoria || tentativa >= Config.App.MAX_RETRY_ATTEMPTS) {
+                        return CompletableFuture.<String>failedFuture(new MercadoPagoException(
+                                "Falha na requisição ao Mercado Pago após " + tentativa + " tentativa(s): "
+                                        + descricao));
+                    }
+
+                    long espera = (long) (Config.App.INITIAL_RETRY_DELAY.toMillis()
+                            * Math.pow(Config.App.RETRY_MULTIPLIER, tentativa - 1));
+                    logger.log(Level.WARNING, "Tentativa {0} ao Mercado Pago falhou ({1}); repetindo em {2}ms",
+                            new Object[] { tentativa, descricao, espera });
+                    return CompletableFuture
+                            .supplyAsync(() -> requisicao,
+                                    CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS))
+                            .thenCompose(mesma -> enviar(mesma, tentativa + 1));
+                })
+                .thenCompose(resultado -> resultado);
+    }
+
+    private static JsonObject criarCorpoPix(String usuarioId, TipoPlano plano, LocalDateTime vencimento) {
+        JsonObject pagador = new JsonObject();
+        pagador.addProperty("email", emailPagador(usuarioId));
+
+        JsonObject corpo = new JsonObject();
+        corpo.addProperty("transaction_amount", plano.getValor());
+        corpo.addProperty("description", plano.getDescricao());
+        corpo.addProperty("payment_method_id", "pix");
+        corpo.addProperty("external_reference", usuarioId + SEPARADOR_REFERENCIA + plano.name());
+        corpo.addProperty("date_of_expiration", vencimento
+                .atZone(ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.MILLIS)
+                .format(FORMATO_DATA));
+        corpo.add("payer", pagador);
+
+        String notificacao = System.getProperty(Config.MercadoPago.ENV_URL_NOTIFICACAO);
+        if (notificacao != null && !notificacao.trim().isEmpty()) {
+            corpo.addProperty("notification_url", notificacao.trim());
+        }
+        return corpo;
+    }
+
+    /**
+     * Chave de idempotência da cobrança: a mesma para o mesmo usuário e plano
+     * dentro de uma janela de {@code Config.MercadoPago.JANELA_IDEMPOTENCIA}.
+     */
+    static String chaveIdempotencia(String usuarioId, TipoPlano plano, long instanteMillis) {
+        long janela = instanteMillis / Config.MercadoPago.JANELA_IDEMPOTENCIA.toMillis();
+        String origem = usuarioId.trim() + SEPARADOR_REFERENCIA + plano.name() + SEPARADOR_REFERENCIA + janela;
+        return UUID.nameUUIDFromBytes(origem.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    static CobrancaPix criarCobrancaDaResposta(String corpo, LocalDateTime vencimento) {
+        JsonObject json = lerObjeto(corpo);
+        JsonObject dadosTransacao = objeto(objeto(json, "point_of_interaction", corpo), "transaction_data", corpo);
+
+        return new CobrancaPix(
+                texto(json, "id", corpo),
+                texto(json, "status", corpo),
+                texto(dadosTransacao, "qr_code", corpo),
+                textoOpcional(dadosTransacao, "qr_code_base64", corpo),
+                textoOpcional(dadosTransacao, "ticket_url", corpo),
+                vencimento);
+    }
+
+    static SituacaoPagamento criarSituacaoDaResposta(String corpo) {
+        JsonObject json = lerObjeto(corpo);
+        return new SituacaoPagamento(
+                texto(json, "id", corpo),
+                texto(json, "status", corpo),
+                textoOpcional(json, "external_reference", corpo));
+    }
+
+    private static JsonObject lerObjeto(String corpo) {
+        JsonElement json;
+        try {
+            json = JsonParser.parseString(corpo);
+        } catch (JsonParseException e) {
+            throw new MercadoPagoException("Resposta inválida do Mercado Pago: " + corpo, e);
+        }
+        if (!json.isJsonObject()) {
+            throw respostaInesperada("objeto JSON", corpo);
+        }
+        return json.getAsJsonObject();
+    }
+
+    private static JsonObject objeto(JsonObject json, String campo, String corpo) {
+        JsonElement valor = json.get(campo);
+        if (valor == null || !valor.isJsonObject()) {
+            throw respostaInesperada("objeto '" + campo + "'", corpo);
+        }
+        return valor.getAsJsonObject();
+    }
+
+    private static String texto(JsonObject json, String campo, String corpo) {
+        String valor = textoOpcional(json, campo, corpo);
+        if (valor == null) {
+            throw respostaInesperada("campo '" + campo + "'", corpo);
+        }
+        return valor;
+    }
+
+    /**
+     * @return Valor do campo ou null se estiver ausente ou nulo
+     */
+    private static String textoOpcional(JsonObject json, String campo, String corpo) {
+        JsonElement valor = json.get(campo);
+        if (valor == null || valor.isJsonNull()) {
+            return null;
+        }
+        if (!valor.isJsonPrimitive()) {
+            throw respostaInesperada("valor simples em '" + campo + "'", corpo);
+        }
+        return valor.getAsString();
+    }
+
+    private static MercadoPagoException respostaInesperada(String esperado, String corpo) {
+        return new MercadoPagoException("Resposta inesperada do Mercado Pago, sem " + esperado + ": " + corpo);
+    }
+
+    private static String tokenAcesso() {
+        String token = System.getProperty(Config.MercadoPago.ENV_ACCESS_TOKEN);
+        return token == null || token.trim().isEmpty() ? null : token.trim();
+    }
+
+    private static MercadoPagoException tokenAusente() {
+        return new MercadoPagoException("Variável " + Config.MercadoPago.ENV_ACCESS_TOKEN + " não configurada");
+    }
+
+    private static String urlBase() {
+        String url = System.getProperty(Config.MercadoPago.ENV_URL_BASE);
+        return (url == null || url.trim().isEmpty() ? Config.MercadoPago.URL_BASE_PADRAO : url.trim())
+                .replaceAll("/+$", "");
+    }
+
+    private static String emailPagador(String usuarioId) {
+        String email = System.getProperty(Config.MercadoPago.ENV_EMAIL_PAGADOR);
+        return email != null && !email.trim().isEmpty()
+                ? email.trim()
+                : "telegram-" + usuarioId + "@" + Config.MercadoPago.DOMINIO_EMAIL_PADRAO;
+    }
+
+    /**
+     * Cobrança PIX gerada pelo Mercado Pago.
+     */
+    public static final class CobrancaPix {
+        private final String pagamentoId;
+        private final String status;
+        private final String qrCode;
+        private final String qrCodeBase64;
+        private final String ticketUrl;
+        private final LocalDateTime vencimento;
+
+        private CobrancaPix(String pagamentoId, String status, String qrCode, String qrCodeBase64,
+                String ticketUrl, LocalDateTime vencimento) {
+            this.pagamentoId = pagamentoId;
+            this.status = status;
+            this.qrCode = qrCode;
+            this.qrCodeBase64 = qrCodeBase64;
+            this.ticketUrl = ticketUrl;
+            this.vencimento = vencimento;
+        }
+
+        /**
+         * ID do pagamento no Mercado Pago, usado também como ID do
+         * {@link io.github.edulanzarin.models.Pagamento}.
+         */
+        public String getPagamentoId() {
+            return pagamentoId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        /**
+         * Código PIX copia e cola.
+         */
+        public String getQrCode() {
+            return qrCode;
+        }
+
+        public String getQrCodeBase64() {
+            return qrCodeBase64;
+        }
+
+        public String getTicketUrl() {
+            return ticketUrl;
+        }
+
+        public LocalDateTime getVencimento() {
+            return vencimento;
+        }
+    }
+
+    /**
+     * Situação de um pagamento consultada na API.
+     */
+    public static final class SituacaoPagamento {
+        private static final String STATUS_APROVADO = "approved";
+
+        private final String pagamentoId;
+        private final String status;
+        private final String referenciaExterna;
+
+        private SituacaoPagamento(String pagamentoId, String status, String referenciaExterna) {
+            this.pagamentoId = pagamentoId;
+            this.status = status;
+            this.referenciaExterna = referenciaExterna;
+        }
+
+        public String getPagamentoId() {
+            return pagamentoId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isAprovado() {
+            return STATUS_APROVADO.equals(status);
+        }
+
+        /**
+         * ID do usuário gravado em {@code external_reference} na criação da
+         * cobrança ("usuarioId:PLANO").
+         *
+         * @return ID do usuário ou null se a referência não seguir o formato
+         */
+        public String getUsuarioId() {
+            if (referenciaExterna == null) {
+                return null;
+            }
+            int separador = referenciaExterna.indexOf(SEPARADOR_REFERENCIA);
+            return separador > 0 ? referenciaExterna.substring(0, separador) : null;
+        }
+    }
+
+    /**
+     * Exceção para falhas na comunicação com o Mercado Pago
+     */
+    public static class MercadoPagoException extends RuntimeException {
+        public MercadoPagoException(String message) {
+            super(message);
+        }
+
+        public MercadoPagoException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
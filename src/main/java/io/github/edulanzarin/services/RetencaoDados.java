@@ -0,0 +1,119 @@
+package io.github.edulanzarin.services;
+
+import io.github.edulanzarin.config.Config;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aplica a retenção de {@code Config.Retencao} às coleções de eventos e
+ * mensagens.
+ *
+ * Os eventos novos já saem com o campo {@code Config.Retencao.CAMPO_EXPIRACAO},
+ * usado pela política de TTL do Firestore (configurada no projeto, fora do
+ * código). Esta rotina cuida dos dados existentes e da compactação: a cada
+ * {@code Config.Retencao.INTERVALO_EXECUCAO}, os eventos mais antigos que a
+ * retenção são somados em resumos diários por usuário e apagados, e as
+ * mensagens antigas são apagadas. O trabalho é feito em páginas, com as
+ * escritas limitadas a {@code Config.Retencao.OPERACOES_POR_SEGUNDO} para não
+ * disputar a cota de escrita com o bot.
+ *
+ * A folga entre a retenção e a expiração do TTL deixa a compactação passar
+ * antes; eventos que o TTL apagar primeiro (ex.: com o bot parado por dias)
+ * não entram nos resumos.
+ */
+public class RetencaoDados {
+
+    private static final Logger logger = Logger.getLogger(RetencaoDados.class.getName());
+
+    private static final RetencaoDados instance = new RetencaoDados();
+
+    private ScheduledExecutorService agendador;
+
+    private RetencaoDados() {
+    }
+
+    public static RetencaoDados getInstance() {
+        return instance;
+    }
+
+    /**
+     * Agenda a rotina: a primeira execução logo após a inicialização e as
+     * demais a cada {@code Config.Retencao.INTERVALO_EXECUCAO} após o término
+     * da anterior.
+     */
+    public synchronized void iniciar() {
+        if (agendador != null) {
+            return;
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retencao-dados");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::executar, 0,
+                Config.Retencao.INTERVALO_EXECUCAO.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void executar() {
+        try {
+            LocalDateTime agora = LocalDateTime.now();
+            LocalDateTime corteEventos = agora.minus(Config.Retencao.RETENCAO_EVENTOS);
+            LocalDateTime corteMensagens = agora.minus(Config.Retencao.RETENCAO_MENSAGENS);
+
+            long eventos = processar("compactação de eventos",
+                    limite -> FirebaseService.compactarEventosAntigos(corteEventos, limite));
+            long mensagens = processar("remoção de mensagens",
+                    limite -> FirebaseService.removerMensagensAntigas(corteMensagens, limite));
+
+            logger.log(Level.INFO, "Retenção concluída: {0} escritas em eventos, {1} mensagens apagadas",
+                    new Object[] { eventos, mensagens });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Não propaga: uma exceção cancelaria as próximas execuções agendadas
+            logger.log(Level.SEVERE, "Retenção interrompida; será retomada no próximo ciclo", e);
+        }
+    }
+
+    /**
+     * Executa a operação página a página até não restar trabalho, espaçando
+     * as páginas para respeitar o teto de escritas por segundo.
+     *
+     * @param pagina Recebe o tamanho da página e retorna as escritas feitas
+     * @return Total de escritas
+     */
+    private long processar(String descricao, IntUnaryOperator pagina) throws InterruptedException {
+        long nanosPorOperacao = TimeUnit.SECONDS.toNanos(1) / Config.Retencao.OPERACOES_POR_SEGUNDO;
+        long total = 0;
+        int escritas;
+        do {
+            long inicio = System.nanoTime();
+            escritas = pagina.applyAsInt(Config.Retencao.TAMANHO_PAGINA);
+            total += escritas;
+
+            long espera = escritas * nanosPorOperacao - (System.nanoTime() - inicio);
+            if (espera > 0) {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            }
+        } while (escritas > 0 && !Thread.currentThread().isInterrupted());
+
+        logger.log(Level.FINE, "{0}: {1} escritas", new Object[] { descricao, total });
+        return total;
+    }
+
+    /**
+     * Cancela as próximas execuções e interrompe a que estiver em andamento;
+     * cada página é atômica, então a próxima execução continua de onde parou.
+     */
+    public synchronized void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package io.github.edulanzarin.services;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.Evento;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Spool local, somente de acréscimo, para os eventos a caminho do Firestore.
+ *
+ * Os eventos são gravados primeiro em segmentos no disco
+ * ({@code Config.Eventos.DIRETORIO_SPOOL}) e uma thread de reenvio os envia à
+ * coleção 'eventos' em lotes, registrando em um checkpoint até onde já foram
+ * enviados. Se o Firestore estiver lento ou fora do ar, os eventos se acumulam
+ * no disco (até {@code Config.Eventos.LIMITE_DISCO_SPOOL}) e não na memória, e
+ * o reenvio continua do checkpoint após um reinício.
+ *
+ * Cada registro é gravado como: tamanho (4 bytes), CRC32 (4 bytes) e o evento
+ * em JSON. Um registro incompleto no fim do último segmento, deixado por uma
+ * queda durante a escrita, é descartado na abertura.
+ */
+public class SpoolEventos {
+
+    private static final Logger logger = Logger.getLogger(SpoolEventos.class.getName());
+
+    private static final SpoolEventos instance = new SpoolEventos(
+            Paths.get(Config.Eventos.DIRETORIO_SPOOL));
+
+    private static final String PREFIXO_SEGMENTO = "segmento-";
+    private static final String EXTENSAO_SEGMENTO = ".log";
+    private static final String ARQUIVO_CHECKPOINT = "checkpoint";
+    private static final int CABECALHO_REGISTRO = 8;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 64 * 1024;
+
+    private final Path diretorio;
+    private final long tamanhoSegmento;
+    private final Consumer<List<Evento>> destino;
+
+    // Estado de escrita, protegido pela trava
+    private final ReentrantLock trava = new ReentrantLock();
+    private final Condition novosDados = trava.newCondition();
+    private FileChannel canalEscrita;
+    private long segmentoEscrita;
+    private long tamanhoEscrita;
+    private long bytesEmDisco;
+
+    private Thread reenvio;
+    private volatile boolean ativo;
+
+    private final AtomicLong anexados = new AtomicLong();
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong recusados = new AtomicLong();
+
+    SpoolEventos(Path diretorio) {
+        this(diretorio, Config.Eventos.TAMANHO_SEGMENTO_SPOOL, FirebaseService::registrarEventos);
+    }
+
+    /**
+     * @param tamanhoSegmento Tamanho a partir do qual um novo segmento é aberto
+     * @param destino         Recebe os lotes lidos do disco; uma exceção faz o
+     *                        lote ser reenviado
+     */
+    SpoolEventos(Path diretorio, long tamanhoSegmento, Consumer<List<Evento>> destino) {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.destino = destino;
+    }
+
+    public static SpoolEventos getInstance() {
+        return instance;
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * ABERTURA E ENCERRAMENTO
+     * -----------------------------------------------------------
+     */
+
+    /**
+     * Abre o spool, descarta um registro incompleto no fim do último segmento
+     * e inicia a thread de reenvio a partir do checkpoint.
+     * Em caso de falha o spool fica inativo e os eventos seguem direto para o
+     * Firestore.
+     */
+    public void iniciar() {
+        trava.lock();
+        try {
+            if (ativo) {
+                return;
+            }
+
+            Files.createDirectories(diretorio);
+            List<Long> segmentos = listarSegmentos();
+            for (long segmento : segmentos) {
+                bytesEmDisco += Files.size(caminhoSegmento(segmento));
+            }
+
+            if (segmentos.isEmpty()) {
+                segmentoEscrita = lerCheckpoint().segmento + 1;
+                tamanhoEscrita = 0;
+            } else {
+                segmentoEscrita = segmentos.get(segmentos.size() - 1);
+                tamanhoEscrita = recuperarFim(segmentoEscrita);
+            }
+            canalEscrita = abrirParaEscrita(segmentoEscrita);
+            canalEscrita.position(tamanhoEscrita);
+            ativo = true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Falha ao abrir o spool de eventos em " + diretorio, e);
+            return;
+        } finally {
+            trava.unlock();
+        }
+
+        reenvio = new Thread(this::executarReenvio, "spool-eventos");
+        reenvio.setDaemon(true);
+        reenvio.start();
+        logger.log(Level.INFO, "Spool de eventos aberto em {0} ({1} bytes pendentes)",
+                new Object[] { diretorio, bytesEmDisco });
+    }
+
+    /**
+     * Para a thread de reenvio e fecha o segmento atual. Os eventos ainda não
+     * enviados permanecem no disco para o próximo início.
+     */
+    public void encerrar() {
+        trava.lock();
+        try {
+            if (!ativo) {
+                return;
+            }
+            ativo = false;
+            novosDados.signalAll();
+        } finally {
+            trava.unlock();
+        }
+
+        try {
+            reenvio.join(Config.Eventos.TEMPO_ENCERRAMENTO.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        trava.lock();
+        try {
+            canalEscrita.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Erro ao fechar o spool de eventos", e);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * ESCRITA
+     * -----------------------------------------------------------
+     */
+
+    /**
+     * Acrescenta os eventos ao spool e força a gravação em disco.
+     *
+     * @param eventos Eventos a serem gravados
+     * @return false se o spool estiver inativo, sem espaço ou com erro de escrita
+     */
+    public boolean anexar(List<Evento> eventos) {
+        if (eventos.isEmpty()) {
+            return true;
+        }
+        ByteBuffer registros = serializar(eventos);
+        int tamanho = registros.remaining();
+
+        trava.lock();
+        try {
+            if (!ativo) {
+                return false;
+            }
+            if (bytesEmDisco + tamanho > Config.Eventos.LIMITE_DISCO_SPOOL) {
+                long total = recusados.addAndGet(eventos.size());
+                logger.log(Level.WARNING, "Spool de eventos cheio, lote recusado (total recusado: {0})", total);
+                return false;
+            }
+            if (tamanhoEscrita > 0 && tamanhoEscrita + tamanho > tamanhoSegmento) {
+                rotacionarSegmento();
+            }
+
+            while (registros.hasRemaining()) {
+                canalEscrita.write(registros);
+            }
+            canalEscrita.force(false);
+
+            tamanhoEscrita += tamanho;
+            bytesEmDisco += tamanho;
+            anexados.addAndGet(eventos.size());
+            novosDados.signalAll();
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Erro ao gravar eventos no spool", e);
+            descartarEscritaParcial();
+            return false;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Fecha o segmento atual e passa a escrever no seguinte. O novo segmento é
+     * aberto antes de fechar o atual, para que uma falha na abertura deixe o
+     * estado de escrita inalterado.
+     */
+    private void rotacionarSegmento() throws IOException {
+        FileChannel novo = abrirParaEscrita(segmentoEscrita + 1);
+        fechar(canalEscrita);
+        canalEscrita = novo;
+        segmentoEscrita++;
+        tamanhoEscrita = 0;
+    }
+
+    /**
+     * Remove os bytes de um lote gravado pela metade, para que o próximo
+     * registro comece logo após o último completo. Se o segmento não puder ser
+     * truncado, a escrita segue em um novo segmento e a sobra é descartada
+     * pelo reenvio como registro inválido; se nem isso for possível, o spool é
+     * desativado e os eventos seguem direto para o Firestore.
+     */
+    private void descartarEscritaParcial() {
+        try {
+            canalEscrita.truncate(tamanhoEscrita);
+            canalEscrita.position(tamanhoEscrita);
+            return;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Falha ao truncar o segmento do spool, abrindo um novo", e);
+        }
+
+        try {
+            rotacionarSegmento();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Spool de eventos desativado após falha de escrita", e);
+            fechar(canalEscrita);
+            ativo = false;
+            novosDados.signalAll();
+        }
+    }
+
+    private static ByteBuffer serializar(List<Evento> eventos) {
+        List<byte[]> corpos = new ArrayList<>(eventos.size());
+        int total = 0;
+        for (Evento evento : eventos) {
+            byte[] corpo = paraJson(evento).toString().getBytes(StandardCharsets.UTF_8);
+            corpos.add(corpo);
+            total += CABECALHO_REGISTRO + corpo.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        for (byte[] corpo : corpos) {
+            crc.reset();
+            crc.update(corpo);
+            buffer.putInt(corpo.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(corpo);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static JsonObject paraJson(Evento evento) {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", evento.getId());
+        json.addProperty("tipoEvento", evento.getTipoEvento());
+        json.addProperty("dataHora", evento.getDataHora().toString());
+        json.addProperty("usuarioId", evento.getUsuarioId());
+        return json;
+    }
+
+    private static Evento deJson(JsonObject json) {
+        Evento evento = new Evento();
+        evento.setId(json.get("id").getAsString());
+        evento.setTipoEvento(json.get("tipoEvento").getAsString());
+        evento.setDataHora(LocalDateTime.parse(json.get("dataHora").getAsString()));
+        JsonElement usuarioId = json.get("usuarioId");
+        if (usuarioId != null && !usuarioId.isJsonNull()) {
+            evento.setUsuarioId(usuarioId.getAsString());
+        }
+        return evento;
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * REENVIO
+     * -----------------------------------------------------------
+     */
+
+    private void executarReenvio() {
+        Posicao posicao = lerCheckpoint();
+        FileChannel leitura = null;
+        long segmentoLeitura = -1;
+
+        while (ativo) {
+            try {
+                long limite;
+                boolean segmentoAtual;
+                trava.lock();
+                try {
+                    segmentoAtual = posicao.segmento == segmentoEscrita;
+                    limite = tamanhoEscrita;
+                    if (segmentoAtual && posicao.offset >= limite) {
+                        novosDados.await(1, TimeUnit.SECONDS);
+                        continue;
+                    }
+                } finally {
+                    trava.unlock();
+                }
+
+                Path caminho = caminhoSegmento(posicao.segmento);
+                if (!Files.exists(caminho)) {
+                    posicao = new Posicao(proximoSegmento(posicao.segmento), 0);
+                    continue;
+                }
+                if (segmentoLeitura != posicao.segmento) {
+                    fechar(leitura);
+                    leitura = FileChannel.open(caminho, StandardOpenOption.READ);
+                    segmentoLeitura = posicao.segmento;
+                }
+                if (!segmentoAtual) {
+                    limite = leitura.size();
+                }
+
+                List<Evento> lote = new ArrayList<>(Config.Validation.MAX_BATCH_SIZE);
+                long fim = lerLote(leitura, posicao.offset, limite, lote);
+
+                if (lote.isEmpty()) {
+                    if (segmentoAtual) {
+                        aguardar(Config.App.INITIAL_RETRY_DELAY.toMillis());
+                    } else {
+                        if (fim < limite) {
+                            logger.log(Level.WARNING, "Registro inválido em {0}, descartando {1} bytes",
+                                    new Object[] { caminho, limite - fim });
+                        }
+                        fechar(leitura);
+                        leitura = null;
+                        segmentoLeitura = -1;
+                        posicao = descartarSegmento(posicao.segmento, limite);
+                    }
+                    continue;
+                }
+
+                if (!enviar(lote)) {
+                    continue; // Encerrando; o lote será reenviado no próximo início
+                }
+                posicao = new Posicao(posicao.segmento, fim);
+                salvarCheckpoint(posicao);
+            } catch (InterruptedException e) {
+                ativo = false;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Erro ao ler o spool de eventos", e);
+                aguardar(Config.App.INITIAL_RETRY_DELAY.toMillis());
+            }
+        }
+        fechar(leitura);
+    }
+
+    /**
+     * Lê registros a partir da posição informada até o limite ou até completar
+     * um lote.
+     *
+     * @return Posição seguinte ao último registro válido lido
+     */
+    private long lerLote(FileChannel canal, long inicio, long limite, List<Evento> lote) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_REGISTRO);
+        CRC32 crc = new CRC32();
+        long posicao = inicio;
+
+        while (lote.size() < Config.Validation.MAX_BATCH_SIZE && posicao + CABECALHO_REGISTRO <= limite) {
+            cabecalho.clear();
+            lerCompleto(canal, cabecalho, posicao);
+            cabecalho.flip();
+            int tamanho = cabecalho.getInt();
+            int crcEsperado = cabecalho.getInt();
+
+            if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO
+                    || posicao + CABECALHO_REGISTRO + tamanho > limite) {
+                break;
+            }
+
+            ByteBuffer corpo = ByteBuffer.allocate(tamanho);
+            lerCompleto(canal, corpo, posicao + CABECALHO_REGISTRO);
+            crc.reset();
+            crc.update(corpo.array());
+            if ((int) crc.getValue() != crcEsperado) {
+                break;
+            }
+
+            try {
+                String json = new String(corpo.array(), StandardCharsets.UTF_8);
+                lote.add(deJson(JsonParser.parseString(json).getAsJsonObject()));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Evento ilegível no spool, ignorado", e);
+            }
+            posicao += CABECALHO_REGISTRO + tamanho;
+        }
+        return posicao;
+    }
+
+    /**
+     * Envia o lote ao destino, repetindo com espera crescente até conseguir
+     * ou até o spool ser encerrado.
+     */
+    private boolean enviar(List<Evento> lote) {
+        long espera = Config.App.INITIAL_RETRY_DELAY.toMillis();
+        while (ativo) {
+            try {
+                destino.accept(lote);
+                enviados.addAndGet(lote.size());
+                return true;
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Falha ao enviar eventos do spool, nova tentativa em {0} ms", espera);
+                aguardar(espera);
+                espera = Math.min(
+                        (long) (espera * Config.App.RETRY_MULTIPLIER),
+                        Config.Eventos.ESPERA_MAXIMA_REENVIO.toMillis());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove um segmento totalmente enviado e avança o checkpoint para o
+     * próximo.
+     */
+    private Posicao descartarSegmento(long segmento, long tamanho) throws IOException {
+        Posicao proxima = new Posicao(proximoSegmento(segmento), 0);
+        salvarCheckpoint(proxima);
+        Files.deleteIfExists(caminhoSegmento(segmento));
+
+        trava.lock();
+        try {
+            bytesEmDisco = Math.max(0, bytesEmDisco - tamanho);
+        } finally {
+            trava.unlock();
+        }
+        return proxima;
+    }
+
+    private long proximoSegmento(long segmento) throws IOException {
+        for (long existente : listarSegmentos()) {
+            if (existente > segmento) {
+                return existente;
+            }
+        }
+        trava.lock();
+        try {
+            return Math.max(segmento + 1, segmentoEscrita);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * ARQUIVOS
+     * -----------------------------------------------------------
+     */
+
+    /**
+     * Encontra o fim do último registro válido do segmento e descarta o
+     * restante.
+     */
+    private long recuperarFim(long segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(caminhoSegmento(segmento),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanho = canal.size();
+            long fim = 0;
+            List<Evento> descartaveis = new ArrayList<>();
+            while (true) {
+                descartaveis.clear();
+                long proximo = lerLote(canal, fim, tamanho, descartaveis);
+                if (proximo == fim) {
+                    break;
+                }
+                fim = proximo;
+            }
+
+            if (fim < tamanho) {
+                logger.log(Level.WARNING, "Descartando {0} bytes incompletos no fim do spool", tamanho - fim);
+                canal.truncate(fim);
+                bytesEmDisco -= tamanho - fim;
+            }
+            return fim;
+        }
+    }
+
+    private Posicao lerCheckpoint() {
+        Path caminho = diretorio.resolve(ARQUIVO_CHECKPOINT);
+        try {
+            if (Files.exists(caminho)) {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(caminho));
+                return new Posicao(buffer.getLong(), buffer.getLong());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Checkpoint do spool ilegível, reiniciando do primeiro segmento", e);
+        }
+        return new Posicao(0, 0);
+    }
+
+    private void salvarCheckpoint(Posicao posicao) throws IOException {
+        Path temporario = diretorio.resolve(ARQUIVO_CHECKPOINT + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(posicao.segmento).putLong(posicao.offset).flip();
+
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, diretorio.resolve(ARQUIVO_CHECKPOINT),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private List<Long> listarSegmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .map(caminho -> caminho.getFileName().toString())
+                    .filter(nome -> nome.startsWith(PREFIXO_SEGMENTO) && nome.endsWith(EXTENSAO_SEGMENTO))
+                    .map(nome -> Long.parseLong(nome.substring(
+                            PREFIXO_SEGMENTO.length(), nome.length() - EXTENSAO_SEGMENTO.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path caminhoSegmento(long segmento) {
+        return diretorio.resolve(String.format("%s%012d%s", PREFIXO_SEGMENTO, segmento, EXTENSAO_SEGMENTO));
+    }
+
+    private FileChannel abrirParaEscrita(long segmento) throws IOException {
+        return FileChannel.open(caminhoSegmento(segmento), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static void lerCompleto(FileChannel canal, ByteBuffer destino, long posicao) throws IOException {
+        long atual = posicao;
+        while (destino.hasRemaining()) {
+            int lidos = canal.read(destino, atual);
+            if (lidos < 0) {
+                throw new IOException("Fim inesperado do segmento do spool");
+            }
+            atual += lidos;
+        }
+    }
+
+    private static void fechar(FileChannel canal) {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Erro ao fechar segmento do spool", e);
+        }
+    }
+
+    private static void aguardar(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * -----------------------------------------------------------
+     * MÉTRICAS
+     * -----------------------------------------------------------
+     */
+
+    public long getAnexados() {
+        return anexados.get();
+    }
+
+    public long getEnviados() {
+        return enviados.get();
+    }
+
+    public long getRecusados() {
+        return recusados.get();
+    }
+
+    /**
+     * Bytes ocupados no disco por eventos ainda não enviados.
+     */
+    public long getBytesPendentes() {
+        trava.lock();
+        try {
+            return bytesEmDisco;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Segmento e deslocamento do próximo registro a ser enviado.
+     */
+    private static final class Posicao {
+        private final long segmento;
+        private final long offset;
+
+        private Posicao(long segmento, long offset) {
+            this.segmento = segmento;
+            this.offset = offset;
+        }
+    }
+}
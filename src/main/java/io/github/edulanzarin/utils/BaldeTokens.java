@@ -0,0 +1,88 @@
+package io.github.edulanzarin.utils;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Balde de tokens para limitar a taxa de uma operação.
+ *
+ * O balde começa cheio, com {@code capacidade} tokens, e é reabastecido
+ * continuamente à taxa de {@code tokens} a cada {@code periodo}. Cada
+ * operação consome um token; a capacidade define a rajada máxima permitida.
+ */
+public class BaldeTokens {
+
+    private final double capacidade;
+    private final double tokensPorNano;
+    private final LongSupplier relogio;
+
+    private double disponiveis;
+    private long ultimaRecarga;
+
+    /**
+     * @param capacidade Quantidade máxima de tokens acumulados
+     * @param tokens     Tokens repostos a cada período
+     * @param periodo    Período de reposição
+     */
+    public BaldeTokens(int capacidade, int tokens, Duration periodo) {
+        this(capacidade, tokens, periodo, System::nanoTime);
+    }
+
+    /**
+     * @param relogio Fonte do tempo em nanossegundos
+     */
+    BaldeTokens(int capacidade, int tokens, Duration periodo, LongSupplier relogio) {
+        if (capacidade <= 0 || tokens <= 0) {
+            throw new IllegalArgumentException("Capacidade e tokens devem ser positivos");
+        }
+        if (periodo == null || periodo.isZero() || periodo.isNegative()) {
+            throw new IllegalArgumentException("Período deve ser positivo");
+        }
+
+        this.capacidade = capacidade;
+        this.tokensPorNano = (double) tokens / periodo.toNanos();
+        this.relogio = relogio;
+        this.disponiveis = capacidade;
+        this.ultimaRecarga = relogio.getAsLong();
+    }
+
+    /**
+     * Consome um token, se houver.
+     *
+     * @return 0 se o token foi consumido; caso contrário, o tempo em
+     *         nanossegundos até haver um token disponível
+     */
+    public synchronized long tentarConsumir() {
+        long espera = tempoAteDisponivel();
+        if (espera == 0) {
+            disponiveis -= 1;
+        }
+        return espera;
+    }
+
+    /**
+     * Tempo em nanossegundos até haver um token disponível, sem consumi-lo.
+     */
+    public synchronized long tempoAteDisponivel() {
+        recarregar();
+        return disponiveis >= 1 ? 0 : nanosPara(1 - disponiveis);
+    }
+
+    /**
+     * Tempo em nanossegundos até o balde voltar a ficar cheio.
+     */
+    public synchronized long tempoAteCheio() {
+        recarregar();
+        return disponiveis >= capacidade ? 0 : nanosPara(capacidade - disponiveis);
+    }
+
+    private void recarregar() {
+        long agora = relogio.getAsLong();
+        disponiveis = Math.min(capacidade, disponiveis + (agora - ultimaRecarga) * tokensPorNano);
+        ultimaRecarga = agora;
+    }
+
+    private long nanosPara(double tokens) {
+        return Math.max(1, (long) Math.ceil(tokens / tokensPorNano));
+    }
+}
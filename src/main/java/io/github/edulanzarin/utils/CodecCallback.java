@@ -0,0 +1,115 @@
+package io.github.edulanzarin.utils;
+
+import io.github.edulanzarin.models.TipoPlano;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Codifica e decodifica o {@code callback_data} dos botões inline.
+ *
+ * O formato é compacto, para caber com folga no limite de 64 bytes do
+ * Telegram: um caractere identifica a ação e o restante é o argumento. Para
+ * planos o argumento é o nome do {@link TipoPlano} em minúsculas (ex.:
+ * "pmensal"), o mesmo usado nos payloads de deep link. Os botões ficam nas
+ * conversas indefinidamente, então o argumento não pode depender da ordem das
+ * constantes do enum.
+ */
+public class CodecCallback {
+
+    private static final int LIMITE_BYTES = 64;
+
+    private static final Map<String, TipoPlano> PLANOS_POR_CODIGO = new HashMap<>();
+
+    static {
+        for (TipoPlano plano : TipoPlano.values()) {
+            PLANOS_POR_CODIGO.put(codigoPlano(plano), plano);
+        }
+    }
+
+    /**
+     * Ações disponíveis nos botões.
+     */
+    public enum Acao {
+        ESCOLHER_PLANO('p');
+
+        private final char codigo;
+
+        Acao(char codigo) {
+            this.codigo = codigo;
+        }
+
+        private static Acao doCodigo(char codigo) {
+            for (Acao acao : values()) {
+                if (acao.codigo == codigo) {
+                    return acao;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Conteúdo decodificado de um callback.
+     */
+    public static final class Dados {
+        private final Acao acao;
+        private final String argumento;
+
+        private Dados(Acao acao, String argumento) {
+            this.acao = acao;
+            this.argumento = argumento;
+        }
+
+        public Acao getAcao() {
+            return acao;
+        }
+
+        public String getArgumento() {
+            return argumento;
+        }
+
+        /**
+         * Plano indicado no argumento.
+         *
+         * @return TipoPlano ou null se o argumento não for um plano válido
+         */
+        public TipoPlano getPlano() {
+            return PLANOS_POR_CODIGO.get(argumento);
+        }
+    }
+
+    private CodecCallback() {
+    }
+
+    public static String codificar(Acao acao, String argumento) {
+        String dados = acao.codigo + argumento;
+        if (dados.getBytes(StandardCharsets.UTF_8).length > LIMITE_BYTES) {
+            throw new IllegalArgumentException("callback_data excede " + LIMITE_BYTES + " bytes: " + dados);
+        }
+        return dados;
+    }
+
+    public static String codificarPlano(TipoPlano plano) {
+        return codificar(Acao.ESCOLHER_PLANO, codigoPlano(plano));
+    }
+
+    private static String codigoPlano(TipoPlano plano) {
+        return plano.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Decodifica o {@code callback_data} recebido.
+     *
+     * @return Dados do callback ou null se o formato for desconhecido
+     */
+    public static Dados decodificar(String dados) {
+        if (dados == null || dados.isEmpty()) {
+            return null;
+        }
+        Acao acao = Acao.doCodigo(dados.charAt(0));
+        return acao == null ? null : new Dados(acao, dados.substring(1));
+    }
+}
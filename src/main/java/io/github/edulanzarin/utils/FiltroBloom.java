@@ -0,0 +1,106 @@
+package io.github.edulanzarin.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom thread-safe para strings.
+ *
+ * Responde se um valor certamente nunca foi adicionado ou se possivelmente
+ * foi, com a taxa de falso positivo informada na criação enquanto o número de
+ * valores não ultrapassar a capacidade esperada. Valores não podem ser
+ * removidos.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int numeroBits;
+    private final int numeroHashes;
+
+    /**
+     * Cria um filtro dimensionado para a capacidade e a taxa de falso positivo
+     * desejadas.
+     *
+     * @param capacidadeEsperada Quantidade de valores que serão adicionados
+     * @param taxaFalsoPositivo  Probabilidade aceitável de falso positivo (0 a 1)
+     */
+    public FiltroBloom(int capacidadeEsperada, double taxaFalsoPositivo) {
+        if (capacidadeEsperada <= 0) {
+            throw new IllegalArgumentException("Capacidade esperada deve ser positiva");
+        }
+        if (taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1");
+        }
+
+        double ln2 = Math.log(2);
+        long bitsIdeais = (long) Math.ceil(-capacidadeEsperada * Math.log(taxaFalsoPositivo) / (ln2 * ln2));
+        this.numeroBits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 64, bitsIdeais));
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / capacidadeEsperada * ln2));
+        this.bits = new AtomicLongArray((numeroBits + 63) >>> 6);
+    }
+
+    /**
+     * Adiciona um valor ao filtro.
+     */
+    public void adicionar(String valor) {
+        long hash = hash64(valor);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= numeroHashes; i++) {
+            int indice = indice(hash1 + i * hash2);
+            int posicao = indice >>> 6;
+            long mascara = 1L << indice;
+
+            long atual;
+            do {
+                atual = bits.get(posicao);
+                if ((atual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(posicao, atual, atual | mascara));
+        }
+    }
+
+    /**
+     * Verifica se o valor possivelmente foi adicionado.
+     *
+     * @return {@code false} se o valor certamente nunca foi adicionado
+     */
+    public boolean podeConter(String valor) {
+        long hash = hash64(valor);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= numeroHashes; i++) {
+            int indice = indice(hash1 + i * hash2);
+            if ((bits.get(indice >>> 6) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indice(int hashCombinado) {
+        return (hashCombinado & Integer.MAX_VALUE) % numeroBits;
+    }
+
+    /**
+     * FNV-1a de 64 bits seguido da finalização do MurmurHash3 para espalhar os
+     * bits entre as duas metades usadas no double hashing.
+     */
+    private static long hash64(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.edulanzarin.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências thread-safe, com memória fixa.
+ *
+ * Os valores são registrados em microssegundos: abaixo de 16 µs cada valor
+ * tem sua própria faixa; acima disso, cada potência de 2 é dividida em 8
+ * faixas, o que limita o erro dos percentis a 12,5%.
+ */
+public class HistogramaLatencia {
+
+    private static final int BITS_SUBFAIXA = 3;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    private static final int FAIXAS_LINEARES = SUBFAIXAS * 2;
+    private static final int MAIOR_EXPOENTE = 40; // ~12 dias em microssegundos
+
+    private final AtomicLongArray contagens = new AtomicLongArray(
+            FAIXAS_LINEARES + (MAIOR_EXPOENTE - BITS_SUBFAIXA) * SUBFAIXAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder somaMicros = new LongAdder();
+    private final AtomicLong maximoMicros = new AtomicLong();
+
+    /**
+     * Registra uma latência.
+     *
+     * @param nanos Duração em nanossegundos
+     */
+    public void registrar(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        contagens.incrementAndGet(indice(micros));
+        total.increment();
+        somaMicros.add(micros);
+        maximoMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getContagem() {
+        return total.sum();
+    }
+
+    public Duration getMedia() {
+        long contagem = total.sum();
+        return contagem == 0 ? Duration.ZERO : Duration.ofNanos(somaMicros.sum() / contagem * 1_000);
+    }
+
+    public Duration getMaximo() {
+        return Duration.ofNanos(maximoMicros.get() * 1_000);
+    }
+
+    /**
+     * Retorna o percentil informado (limite superior da faixa).
+     *
+     * @param percentil Valor entre 0 e 100
+     */
+    public Duration percentil(double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("Percentil deve estar entre 0 e 100");
+        }
+
+        long contagem = total.sum();
+        if (contagem == 0) {
+            return Duration.ZERO;
+        }
+
+        long alvo = Math.max(1, (long) Math.ceil(contagem * percentil / 100));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length(); i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) {
+                // A última faixa também recebe os valores acima de MAIOR_EXPOENTE
+                long limite = i == contagens.length() - 1 ? Long.MAX_VALUE : limiteSuperior(i);
+                return Duration.ofNanos(Math.min(limite, maximoMicros.get()) * 1_000);
+            }
+        }
+        return getMaximo();
+    }
+
+    /**
+     * Resumo para log: contagem, média, p50, p90, p99 e máximo em milissegundos.
+     */
+    public String resumo() {
+        return String.format("n=%d media=%.1fms p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                getContagem(),
+                millis(getMedia()),
+                millis(percentil(50)),
+                millis(percentil(90)),
+                millis(percentil(99)),
+                millis(getMaximo()));
+    }
+
+    private static double millis(Duration duracao) {
+        return duracao.toNanos() / 1_000_000.0;
+    }
+
+    private int indice(long micros) {
+        if (micros < FAIXAS_LINEARES) {
+            return (int) micros;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(micros);
+        if (expoente > MAIOR_EXPOENTE) {
+            return contagens.length() - 1;
+        }
+        int subfaixa = (int) ((micros >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1));
+        return FAIXAS_LINEARES + (expoente - BITS_SUBFAIXA - 1) * SUBFAIXAS + subfaixa;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < FAIXAS_LINEARES) {
+            return indice;
+        }
+        int deslocado = indice - FAIXAS_LINEARES;
+        int expoente = deslocado / SUBFAIXAS + BITS_SUBFAIXA + 1;
+        int subfaixa = deslocado % SUBFAIXAS;
+        return ((long) (SUBFAIXAS + subfaixa + 1) << (expoente - BITS_SUBFAIXA)) - 1;
+    }
+}
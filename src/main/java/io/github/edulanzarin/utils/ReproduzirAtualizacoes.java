@@ -0,0 +1,91 @@
+package io.github.edulanzarin.utils;
+
+import io.github.edulanzarin.config.Config;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cliente de linha de comando que reenvia updates gravados ao webhook local,
+ * para testar o modo webhook sem o Telegram.
+ *
+ * O arquivo deve ter um update JSON por linha (linhas vazias e iniciadas por
+ * # são ignoradas). Uso:
+ *
+ * ReproduzirAtualizacoes arquivo.jsonl [url] [segredo]
+ *
+ * A URL padrão é http://localhost:{porta padrão}{caminho do webhook} e o
+ * segredo padrão é o configurado no .env.
+ */
+public class ReproduzirAtualizacoes {
+
+    private static final String CABECALHO_SEGREDO = "X-Telegram-Bot-Api-Secret-Token";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Uso: ReproduzirAtualizacoes arquivo.jsonl [url] [segredo]");
+            System.exit(2);
+        }
+
+        CarregarEnv.load();
+        Path arquivo = Path.of(args[0]);
+        String url = args.length > 1 ? args[1]
+                : "http://localhost:" + Config.TelegramBot.WEBHOOK_PORTA_PADRAO + Config.TelegramBot.WEBHOOK_CAMINHO;
+        String segredo = args.length > 2 ? args[2] : System.getProperty(Config.TelegramBot.ENV_WEBHOOK_SEGREDO);
+        if (segredo == null) {
+            System.err.println("Segredo não informado e " + Config.TelegramBot.ENV_WEBHOOK_SEGREDO + " ausente no .env");
+            System.exit(2);
+        }
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+
+        int enviados = 0;
+        int falhas = 0;
+        long inicio = System.nanoTime();
+        for (String linha : linhas) {
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .header(CABECALHO_SEGREDO, segredo)
+                    .POST(HttpRequest.BodyPublishers.ofString(linha, StandardCharsets.UTF_8))
+                    .build();
+
+            try {
+                int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    enviados++;
+                } else {
+                    falhas++;
+                    System.err.println("[ERRO] Status " + status + " para: " + resumir(linha));
+                }
+            } catch (IOException e) {
+                falhas++;
+                System.err.println("[ERRO] Falha ao enviar: " + e.getMessage());
+            }
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%d updates enviados, %d falhas em %.2fs%n", enviados, falhas, segundos);
+        System.exit(falhas == 0 ? 0 : 1);
+    }
+
+    private static String resumir(String linha) {
+        return linha.length() > 80 ? linha.substring(0, 80) + "..." : linha;
+    }
+}
@@ -1,12 +1,21 @@
 package io.github.edulanzarin.utils;
 
+import io.github.edulanzarin.models.Assinatura;
+import io.github.edulanzarin.models.TipoPlano;
 import io.github.edulanzarin.models.Usuario;
-import io.github.edulanzarin.services.FirebaseService;
+import io.github.edulanzarin.services.CacheMensagens;
+
+import java.time.format.DateTimeFormatter;
 
 public class Respostas {
     private static Respostas instance;
 
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final CacheMensagens cache;
+
     private Respostas() {
+        this.cache = CacheMensagens.getInstance();
     } // Construtor privado para singleton
 
     public static Respostas getInstance() {
@@ -33,6 +42,19 @@ public class Respostas {
         return buscarMensagemDireta("botoes_planos");
     }
 
+    public String planoSelecionado(TipoPlano plano) {
+        return formatarMensagem("plano_selecionado", plano.getDescricao(), plano.getValor());
+    }
+
+    public String pixGerado(TipoPlano plano, String codigoPix) {
+        return formatarMensagem("pix_gerado", plano.getDescricao(), plano.getValor(), codigoPix);
+    }
+
+    public String avisoExpiracao(Assinatura assinatura) {
+        return formatarMensagem("aviso_expiracao", assinatura.getTipoPlano().getDescricao(),
+                assinatura.getDataFim().format(FORMATO_DATA));
+    }
+
     // Mensagens de comando
     public String comandoStart(Usuario usuario) {
         return bemVindo(usuario);
@@ -56,12 +78,12 @@ public class Respostas {
 
     // Métodos auxiliares
     private String buscarMensagemDireta(String chave) {
-        String mensagem = FirebaseService.buscarMensagem(chave);
+        String mensagem = cache.buscar(chave);
         return mensagem != null ? mensagem : "Mensagem não configurada: " + chave;
     }
 
     private String formatarMensagem(String chave, Object... args) {
-        String mensagem = FirebaseService.buscarMensagem(chave);
+        String mensagem = cache.buscar(chave);
         return mensagem != null ? String.format(mensagem, args) : "Mensagem não configurada: " + chave;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package io.github.edulanzarin.utils;
+
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.TipoPlano;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Teclados inline de oferta dos planos, montados uma única vez na carga da
+ * classe.
+ *
+ * Há um teclado com todos os planos e um por {@link TipoPlano}. As listas de
+ * botões são imutáveis e os teclados nunca são alterados depois de montados,
+ * então a mesma instância é reutilizada em todas as mensagens.
+ */
+public class TecladosPlanos {
+
+    private static final Locale LOCALE_BR = Locale.forLanguageTag("pt-BR");
+
+    private static final InlineKeyboardMarkup TODOS_OS_PLANOS;
+    private static final Map<TipoPlano, InlineKeyboardMarkup> POR_PLANO = new EnumMap<>(TipoPlano.class);
+    private static final Map<String, TipoPlano> PLANOS_POR_PAYLOAD = new HashMap<>();
+
+    static {
+        List<List<InlineKeyboardButton>> linhas = new ArrayList<>();
+        for (TipoPlano plano : TipoPlano.values()) {
+            List<InlineKeyboardButton> linha = List.of(criarBotao(plano));
+            linhas.add(linha);
+            POR_PLANO.put(plano, new InlineKeyboardMarkup(List.of(linha)));
+
+            String nome = plano.name().toLowerCase(Locale.ROOT);
+            PLANOS_POR_PAYLOAD.put(nome, plano);
+            PLANOS_POR_PAYLOAD.put(Config.Mensagens.PREFIXO_PAYLOAD_PLANO + nome, plano);
+        }
+        TODOS_OS_PLANOS = new InlineKeyboardMarkup(Collections.unmodifiableList(linhas));
+    }
+
+    private TecladosPlanos() {
+    }
+
+    /**
+     * Teclado com um botão por plano.
+     */
+    public static InlineKeyboardMarkup todos() {
+        return TODOS_OS_PLANOS;
+    }
+
+    /**
+     * Teclado com o botão de um único plano.
+     */
+    public static InlineKeyboardMarkup doPlano(TipoPlano plano) {
+        return POR_PLANO.get(plano);
+    }
+
+    /**
+     * Identifica o plano de um payload de deep link ("mensal" ou
+     * "plano_mensal", sem diferenciar maiúsculas).
+     *
+     * @return Plano correspondente ou null se o payload não indicar um plano
+     */
+    public static TipoPlano planoDoPayload(String payload) {
+        return payload == null ? null : PLANOS_POR_PAYLOAD.get(payload.toLowerCase(Locale.ROOT));
+    }
+
+    private static InlineKeyboardButton criarBotao(TipoPlano plano) {
+        return InlineKeyboardButton.builder()
+                .text(String.format(LOCALE_BR, "%s - R$ %.2f", plano.getDescricao(), plano.getValor()))
+                .callbackData(CodecCallback.codificarPlano(plano))
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.edulanzarin.handlers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Testa o roteamento de {@link RegistroComandos}. Cada manipulador responde
+ * com "nome|argumentos", para que o teste veja quem atendeu e com quais
+ * argumentos.
+ */
+public class RegistroComandosTest {
+
+    private static final String BOT = "MeuBot";
+
+    private RegistroComandos registro;
+
+    @Before
+    public void setUp() {
+        registro = new RegistroComandos(BOT, manipulador("naoReconhecido"));
+        registro.registrar("start", manipulador("start"));
+        registro.registrar("help", manipulador("help"));
+    }
+
+    private static ManipuladorComando manipulador(String nome) {
+        return (usuario, argumentos) -> Resposta.texto(nome + "|" + argumentos);
+    }
+
+    private String despachar(String texto) {
+        Resposta resposta = registro.despachar(texto, null);
+        return resposta != null ? resposta.getTexto() : null;
+    }
+
+    @Test
+    public void comandoSemArgumentos() {
+        assertEquals("start|", despachar("/start"));
+    }
+
+    @Test
+    public void comandoComArgumentos() {
+        assertEquals("start|abc123", despachar("/start abc123"));
+        assertEquals("start|abc 123", despachar("/start   abc 123  "));
+        assertEquals("start|abc123", despachar("/start\nabc123"));
+    }
+
+    @Test
+    public void sufixoDoProprioBot() {
+        assertEquals("help|", despachar("/help@MeuBot"));
+        assertEquals("help|", despachar("/HELP@meubot"));
+        assertEquals("start|abc123", despachar("/start@MeuBot abc123"));
+    }
+
+    @Test
+    public void sufixoDeOutroBotRetornaNull() {
+        assertNull(despachar("/help@OutroBot"));
+        assertNull(despachar("/help@MeuBot2"));
+        assertNull(despachar("/help@Meu"));
+        assertNull(despachar("/comando@OutroBot abc"));
+    }
+
+    @Test
+    public void comandoDesconhecidoVaiParaNaoReconhecido() {
+        assertEquals("naoReconhecido|", despachar("/sair"));
+        assertEquals("naoReconhecido|x", despachar("/sta x"));
+        assertEquals("naoReconhecido|", despachar("/"));
+        assertEquals("naoReconhecido|", despachar("/@MeuBot"));
+    }
+
+    @Test
+    public void nomesComMesmoHashSaoDistinguidos() {
+        // 'a'*31 + 'z' == 'b'*31 + '[' == 'c'*31 + '<': mesmo hash, então as
+        // buscas percorrem a mesma sequência de posições
+        registro.registrar("az", manipulador("az"));
+        registro.registrar("b[", manipulador("b["));
+
+        assertEquals("az|", despachar("/az"));
+        assertEquals("b[|", despachar("/b["));
+        assertEquals("naoReconhecido|", despachar("/c<"));
+    }
+
+    @Test
+    public void muitosRegistrosSobrevivemAoRedimensionamento() {
+        for (int i = 0; i < 200; i++) {
+            registro.registrar("cmd" + i, manipulador("cmd" + i));
+        }
+
+        assertEquals("start|x", despachar("/start x"));
+        for (int i = 0; i < 200; i++) {
+            assertEquals("cmd" + i + "|", despachar("/cmd" + i));
+        }
+        assertEquals("naoReconhecido|", despachar("/cmd200"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registroDuplicadoIgnoraMaiusculas() {
+        registro.registrar("Start", manipulador("outro"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nomeComArrobaEhRecusado() {
+        registro.registrar("help@MeuBot", manipulador("outro"));
+    }
+}
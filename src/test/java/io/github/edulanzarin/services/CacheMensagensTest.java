@@ -0,0 +1,98 @@
+package io.github.edulanzarin.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testa o espelho da coleção mantido pelos callbacks do listener, sem
+ * Firestore: os callbacks são chamados na ordem em que o listener os entrega.
+ */
+public class CacheMensagensTest {
+
+    private CacheMensagens cache;
+
+    @Before
+    public void setUp() {
+        cache = new CacheMensagens();
+    }
+
+    @Test
+    public void primeiraSincronizacaoServeAColecaoDaMemoria() {
+        cache.aoAlterar("boas_vindas", "Olá!");
+        cache.aoAlterar("ajuda", "Use /start");
+        cache.aoRemover("ajuda");
+        assertFalse(cache.isSincronizado());
+
+        cache.aoSincronizar();
+
+        assertTrue(cache.isSincronizado());
+        assertEquals("Olá!", cache.buscar("boas_vindas"));
+        assertNull(cache.buscar("ajuda"));
+        assertEquals(0, cache.getBuscasRemotas());
+    }
+
+    @Test
+    public void alteracaoSemMensagemRemoveAChave() {
+        cache.aoAlterar("boas_vindas", "Olá!");
+        cache.aoSincronizar();
+
+        cache.aoAlterar("boas_vindas", null);
+
+        assertNull(cache.buscar("boas_vindas"));
+    }
+
+    @Test
+    public void falhaSaiDoModoSincronizado() {
+        cache.aoAlterar("boas_vindas", "Olá!");
+        cache.aoSincronizar();
+
+        cache.aoFalhar(new IllegalStateException("conexão perdida"));
+
+        assertFalse(cache.isSincronizado());
+    }
+
+    @Test
+    public void ressincronizacaoDescartaChavesApagadasDuranteAFalha() {
+        cache.aoAlterar("boas_vindas", "Olá!");
+        cache.aoAlterar("ajuda", "Use /start");
+        cache.aoAlterar("planos", "Escolha um plano");
+        cache.aoRemover("planos");
+        cache.aoSincronizar();
+
+        cache.aoFalhar(new IllegalStateException("conexão perdida"));
+
+        // Primeiro snapshot após a reconexão: 'ajuda' foi apagada enquanto o
+        // listener estava fora e 'boas_vindas' foi editada
+        cache.aoAlterar("boas_vindas", "Olá de novo!");
+        cache.aoAlterar("suporte", "Fale conosco");
+        cache.aoSincronizar();
+
+        assertTrue(cache.isSincronizado());
+        assertEquals("Olá de novo!", cache.buscar("boas_vindas"));
+        assertEquals("Fale conosco", cache.buscar("suporte"));
+        assertNull(cache.buscar("ajuda"));
+        assertNull(cache.buscar("planos"));
+    }
+
+    @Test
+    public void snapshotsSeguintesSaoIncrementais() {
+        cache.aoAlterar("boas_vindas", "Olá!");
+        cache.aoSincronizar();
+        cache.aoFalhar(new IllegalStateException("conexão perdida"));
+        cache.aoAlterar("boas_vindas", "Olá!");
+        cache.aoSincronizar();
+
+        // Depois da reconciliação, um snapshot com uma única alteração não
+        // apaga as demais chaves
+        cache.aoAlterar("ajuda", "Use /start");
+        cache.aoSincronizar();
+
+        assertEquals("Olá!", cache.buscar("boas_vindas"));
+        assertEquals("Use /start", cache.buscar("ajuda"));
+    }
+}
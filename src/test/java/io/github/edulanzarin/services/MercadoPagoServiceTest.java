@@ -0,0 +1,174 @@
+package io.github.edulanzarin.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.edulanzarin.config.Config;
+import io.github.edulanzarin.models.TipoPlano;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Testa as repetições de {@link MercadoPagoService} contra um servidor HTTP
+ * local, apontado por {@code MERCADOPAGO_URL_BASE}.
+ */
+public class MercadoPagoServiceTest {
+
+    private static final String RESPOSTA_COBRANCA = "{\"id\":123,\"status\":\"pending\","
+            + "\"point_of_interaction\":{\"transaction_data\":{\"qr_code\":\"00020126pix\"}}}";
+
+    private HttpServer servidor;
+    private final List<String> chavesIdempotencia = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requisicoes = new AtomicInteger();
+    private volatile int[] statusRespostas;
+
+    @Before
+    public void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        servidor.createContext(Config.MercadoPago.CAMINHO_PAGAMENTOS, this::responder);
+        servidor.start();
+
+        System.setProperty(Config.MercadoPago.ENV_ACCESS_TOKEN, "TEST-token");
+        System.setProperty(Config.MercadoPago.ENV_URL_BASE,
+                "http://localhost:" + servidor.getAddress().getPort() + "/");
+    }
+
+    @After
+    public void tearDown() {
+        servidor.stop(0);
+        System.clearProperty(Config.MercadoPago.ENV_ACCESS_TOKEN);
+        System.clearProperty(Config.MercadoPago.ENV_URL_BASE);
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        int indice = requisicoes.getAndIncrement();
+        chavesIdempotencia.add(troca.getRequestHeaders().getFirst("X-Idempotency-Key"));
+        troca.getRequestBody().readAllBytes();
+
+        int status = statusRespostas[Math.min(indice, statusRespostas.length - 1)];
+        byte[] corpo = (status == 201 ? RESPOSTA_COBRANCA : "{\"message\":\"erro " + status + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        troca.sendResponseHeaders(status, corpo.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(corpo);
+        }
+    }
+
+    @Test
+    public void repeteErros5xxComAMesmaChaveDeIdempotencia() throws Exception {
+        statusRespostas = new int[] { 503, 503, 201 };
+
+        MercadoPagoService.CobrancaPix cobranca = MercadoPagoService.getInstance()
+                .criarCobrancaPixAsync("42", TipoPlano.MENSAL)
+                .get(30, TimeUnit.SECONDS);
+
+        assertEquals("123", cobranca.getPagamentoId());
+        assertEquals("00020126pix", cobranca.getQrCode());
+        assertEquals(3, requisicoes.get());
+        assertNotNull(chavesIdempotencia.get(0));
+        assertEquals(1, new HashSet<>(chavesIdempotencia).size());
+    }
+
+    @Test
+    public void naoRepeteErro400() throws Exception {
+        statusRespostas = new int[] { 400, 201 };
+
+        try {
+            MercadoPagoService.getInstance()
+                    .criarCobrancaPixAsync("42", TipoPlano.MENSAL)
+                    .get(30, TimeUnit.SECONDS);
+            fail("A cobrança deveria falhar com HTTP 400");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MercadoPagoService.MercadoPagoException);
+        }
+
+        assertEquals(1, requisicoes.get());
+    }
+
+    @Test
+    public void chaveDeIdempotenciaEstavelNaJanela() {
+        long janela = Config.MercadoPago.JANELA_IDEMPOTENCIA.toMillis();
+        long inicio = 1_700_000_000_000L / janela * janela;
+
+        String chave = MercadoPagoService.chaveIdempotencia("42", TipoPlano.MENSAL, inicio);
+        assertEquals(chave, MercadoPagoService.chaveIdempotencia("42", TipoPlano.MENSAL, inicio + janela - 1));
+        assertNotEquals(chave, MercadoPagoService.chaveIdempotencia("42", TipoPlano.MENSAL, inicio + janela));
+        assertNotEquals(chave, MercadoPagoService.chaveIdempotencia("43", TipoPlano.MENSAL, inicio));
+        assertNotEquals(chave, MercadoPagoService.chaveIdempotencia("42", TipoPlano.VITALICIO, inicio));
+    }
+
+    @Test
+    public void cobrancaComCamposOpcionaisAusentes() {
+        MercadoPagoService.CobrancaPix cobranca = MercadoPagoService.criarCobrancaDaResposta(
+                RESPOSTA_COBRANCA, LocalDateTime.now());
+
+        assertEquals("123", cobranca.getPagamentoId());
+        assertEquals("pending", cobranca.getStatus());
+        assertNull(cobranca.getQrCodeBase64());
+        assertNull(cobranca.getTicketUrl());
+    }
+
+    @Test
+    public void respostasIncompletasFalhamComMercadoPagoException() {
+        String[] respostas = {
+                "",
+                "nao é json",
+                "[]",
+                "{\"id\":123,\"status\":\"pending\"}",
+                "{\"id\":123,\"status\":\"pending\",\"point_of_interaction\":\"pix\"}",
+                "{\"id\":123,\"status\":\"pending\",\"point_of_interaction\":{\"transaction_data\":{}}}",
+                "{\"id\":null,\"status\":\"pending\","
+                        + "\"point_of_interaction\":{\"transaction_data\":{\"qr_code\":\"pix\"}}}",
+                "{\"id\":{},\"status\":\"pending\","
+                        + "\"point_of_interaction\":{\"transaction_data\":{\"qr_code\":\"pix\"}}}",
+        };
+
+        for (String resposta : respostas) {
+            try {
+                MercadoPagoService.criarCobrancaDaResposta(resposta, LocalDateTime.now());
+                fail("Resposta aceita: " + resposta);
+            } catch (MercadoPagoService.MercadoPagoException e) {
+                // esperado
+            }
+        }
+    }
+
+    @Test
+    public void situacaoComReferenciaNulaOuAusente() {
+        MercadoPagoService.SituacaoPagamento situacao = MercadoPagoService.criarSituacaoDaResposta(
+                "{\"id\":7,\"status\":\"approved\",\"external_reference\":\"42:MENSAL\"}");
+        assertTrue(situacao.isAprovado());
+        assertEquals("42", situacao.getUsuarioId());
+
+        assertNull(MercadoPagoService.criarSituacaoDaResposta(
+                "{\"id\":7,\"status\":\"pending\",\"external_reference\":null}").getUsuarioId());
+        assertNull(MercadoPagoService.criarSituacaoDaResposta(
+                "{\"id\":7,\"status\":\"pending\"}").getUsuarioId());
+    }
+
+    @Test(expected = MercadoPagoService.MercadoPagoException.class)
+    public void situacaoSemStatusFalha() {
+        MercadoPagoService.criarSituacaoDaResposta("{\"id\":7}");
+    }
+}
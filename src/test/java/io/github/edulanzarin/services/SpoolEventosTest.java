@@ -0,0 +1,215 @@
+package io.github.edulanzarin.services;
+
+import io.github.edulanzarin.models.Evento;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testa o spool sobre um diretório temporário. Os eventos são gravados com um
+ * destino fora do ar, para que fiquem no disco, e o spool é reaberto com um
+ * destino que registra os IDs recebidos.
+ */
+public class SpoolEventosTest {
+
+    private static final long SEGMENTO_GRANDE = 1024 * 1024;
+    private static final long ESPERA_MAXIMA_MS = 10_000;
+
+    private Path diretorio;
+    private SpoolEventos spool;
+    private final List<String> recebidos = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws IOException {
+        diretorio = Files.createTempDirectory("spool-eventos");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (spool != null) {
+            spool.encerrar();
+        }
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+    }
+
+    private static Evento evento(String id) {
+        Evento evento = new Evento();
+        evento.setId(id);
+        evento.setTipoEvento("/start");
+        evento.setDataHora(LocalDateTime.of(2025, 1, 1, 12, 0));
+        evento.setUsuarioId("42");
+        return evento;
+    }
+
+    private SpoolEventos abrir(long tamanhoSegmento, Consumer<List<Evento>> destino) {
+        spool = new SpoolEventos(diretorio, tamanhoSegmento, destino);
+        spool.iniciar();
+        assertTrue(spool.isAtivo());
+        return spool;
+    }
+
+    private SpoolEventos abrirOffline(long tamanhoSegmento) {
+        return abrir(tamanhoSegmento, lote -> {
+            throw new IllegalStateException("Firestore fora do ar");
+        });
+    }
+
+    private SpoolEventos abrirOnline() {
+        return abrir(SEGMENTO_GRANDE, lote -> {
+            for (Evento evento : lote) {
+                recebidos.add(evento.getId());
+            }
+        });
+    }
+
+    private void reabrirOnline() {
+        spool.encerrar();
+        abrirOnline();
+    }
+
+    private void aguardarRecebidos(int quantidade) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (recebidos.size() < quantidade && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        // Dá tempo para um eventual reenvio indevido aparecer
+        Thread.sleep(200);
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(arquivo -> arquivo.getFileName().toString().startsWith("segmento-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void registroTemTamanhoCrcEJson() throws IOException {
+        abrirOffline(SEGMENTO_GRANDE).anexar(Arrays.asList(evento("e1")));
+        spool.encerrar();
+
+        List<Path> segmentos = segmentos();
+        assertEquals(1, segmentos.size());
+        ByteBuffer registro = ByteBuffer.wrap(Files.readAllBytes(segmentos.get(0)));
+        int tamanho = registro.getInt();
+        registro.getInt(); // CRC32
+        assertEquals(registro.remaining(), tamanho);
+        String json = new String(registro.array(), 8, tamanho, StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"id\":\"e1\""));
+    }
+
+    @Test
+    public void eventosAnexadosSaoEnviados() throws InterruptedException {
+        abrirOnline().anexar(Arrays.asList(evento("e1"), evento("e2"), evento("e3")));
+
+        aguardarRecebidos(3);
+        assertEquals(Arrays.asList("e1", "e2", "e3"), recebidos);
+        assertEquals(3, spool.getEnviados());
+    }
+
+    @Test
+    public void reaberturaContinuaDoCheckpoint() throws InterruptedException {
+        abrirOnline().anexar(Arrays.asList(evento("e1"), evento("e2")));
+        aguardarRecebidos(2);
+
+        // encerrar() espera o checkpoint do lote já enviado ser gravado
+        reabrirOnline();
+        spool.anexar(Arrays.asList(evento("e3")));
+
+        aguardarRecebidos(3);
+        assertEquals(Arrays.asList("e1", "e2", "e3"), recebidos);
+    }
+
+    @Test
+    public void eventosNaoEnviadosSobrevivemAoReinicio() throws InterruptedException {
+        abrirOffline(SEGMENTO_GRANDE).anexar(Arrays.asList(evento("e1"), evento("e2")));
+
+        reabrirOnline();
+
+        aguardarRecebidos(2);
+        assertEquals(Arrays.asList("e1", "e2"), recebidos);
+    }
+
+    @Test
+    public void registroTruncadoNoFimEhDescartado() throws IOException, InterruptedException {
+        abrirOffline(SEGMENTO_GRANDE).anexar(Arrays.asList(evento("e1"), evento("e2"), evento("e3")));
+        spool.encerrar();
+
+        // Queda no meio da escrita do último registro
+        Path segmento = segmentos().get(0);
+        long tamanhoCompleto = Files.size(segmento);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanhoCompleto - 5);
+        }
+
+        abrirOnline();
+        spool.anexar(Arrays.asList(evento("e4")));
+
+        // O novo registro começa logo após o último completo
+        aguardarRecebidos(3);
+        assertEquals(Arrays.asList("e1", "e2", "e4"), recebidos);
+    }
+
+    @Test
+    public void crcInvalidoDescartaORestanteDoSegmento() throws IOException, InterruptedException {
+        abrirOffline(SEGMENTO_GRANDE).anexar(Arrays.asList(evento("e1"), evento("e2"), evento("e3")));
+        spool.encerrar();
+
+        // Altera um byte do JSON do segundo registro
+        Path segmento = segmentos().get(0);
+        byte[] bytes = Files.readAllBytes(segmento);
+        int inicioSegundo = 8 + ByteBuffer.wrap(bytes).getInt();
+        bytes[inicioSegundo + 8 + 2] ^= 0x01;
+        Files.write(segmento, bytes);
+
+        abrirOnline();
+
+        aguardarRecebidos(1);
+        assertEquals(Arrays.asList("e1"), recebidos);
+        assertEquals(inicioSegundo, Files.size(segmento));
+    }
+
+    @Test
+    public void segmentosSaoRotacionadosEApagadosAposEnvio() throws IOException, InterruptedException {
+        // Segmento de 1 byte: cada lote depois do primeiro abre um novo
+        abrirOffline(1);
+        spool.anexar(Arrays.asList(evento("e1")));
+        spool.anexar(Arrays.asList(evento("e2")));
+        spool.anexar(Arrays.asList(evento("e3")));
+        spool.encerrar();
+        assertEquals(3, segmentos().size());
+
+        reabrirOnline();
+
+        aguardarRecebidos(3);
+        assertEquals(Arrays.asList("e1", "e2", "e3"), recebidos);
+        // Só o segmento de escrita permanece
+        assertEquals(1, segmentos().size());
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.edulanzarin.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testa o balde com um relógio controlado pelo teste: 5 tokens de capacidade
+ * e 1 token a cada 100 ms.
+ */
+public class BaldeTokensTest {
+
+    private static final long INTERVALO = Duration.ofMillis(100).toNanos();
+
+    private long agora;
+    private BaldeTokens balde;
+
+    @Before
+    public void setUp() {
+        agora = 1_000_000_000L;
+        balde = new BaldeTokens(5, 1, Duration.ofMillis(100), () -> agora);
+    }
+
+    private void consumirTodos() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, balde.tentarConsumir());
+        }
+    }
+
+    @Test
+    public void comecaCheioEPermiteRajadaDaCapacidade() {
+        assertEquals(0, balde.tempoAteCheio());
+        consumirTodos();
+        assertEquals(INTERVALO, balde.tentarConsumir());
+    }
+
+    @Test
+    public void tentativaSemTokenNaoConsome() {
+        consumirTodos();
+        assertEquals(INTERVALO, balde.tentarConsumir());
+        assertEquals(INTERVALO, balde.tentarConsumir());
+
+        agora += INTERVALO;
+        assertEquals(0, balde.tentarConsumir());
+    }
+
+    @Test
+    public void recargaProporcionalAoTempo() {
+        consumirTodos();
+
+        agora += INTERVALO / 4;
+        assertEquals(INTERVALO * 3 / 4, balde.tempoAteDisponivel());
+
+        agora += INTERVALO * 3 / 4;
+        assertEquals(0, balde.tempoAteDisponivel());
+        assertEquals(INTERVALO * 4, balde.tempoAteCheio());
+
+        agora += INTERVALO * 2;
+        assertEquals(0, balde.tentarConsumir());
+        assertEquals(0, balde.tentarConsumir());
+        assertEquals(0, balde.tentarConsumir());
+        assertEquals(INTERVALO, balde.tentarConsumir());
+    }
+
+    @Test
+    public void recargaNaoPassaDaCapacidade() {
+        agora += INTERVALO * 100;
+        assertEquals(0, balde.tempoAteCheio());
+
+        consumirTodos();
+        assertTrue(balde.tentarConsumir() > 0);
+    }
+
+    @Test
+    public void tempoAteDisponivelNaoConsome() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, balde.tempoAteDisponivel());
+        }
+        consumirTodos();
+    }
+
+    @Test
+    public void tempoAteCheioAposConsumo() {
+        balde.tentarConsumir();
+        balde.tentarConsumir();
+        assertEquals(INTERVALO * 2, balde.tempoAteCheio());
+
+        agora += INTERVALO * 2;
+        assertEquals(0, balde.tempoAteCheio());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacidadeDeveSerPositiva() {
+        new BaldeTokens(0, 1, Duration.ofSeconds(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void periodoDeveSerPositivo() {
+        new BaldeTokens(1, 1, Duration.ZERO);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.edulanzarin.utils;
+
+import io.github.edulanzarin.models.TipoPlano;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CodecCallbackTest {
+
+    @Test
+    public void planoUsaONomeEmMinusculas() {
+        assertEquals("pmensal", CodecCallback.codificarPlano(TipoPlano.MENSAL));
+        assertEquals("pvitalicio", CodecCallback.codificarPlano(TipoPlano.VITALICIO));
+    }
+
+    @Test
+    public void todosOsPlanosVoltamDaDecodificacao() {
+        for (TipoPlano plano : TipoPlano.values()) {
+            CodecCallback.Dados dados = CodecCallback.decodificar(CodecCallback.codificarPlano(plano));
+            assertEquals(CodecCallback.Acao.ESCOLHER_PLANO, dados.getAcao());
+            assertEquals(plano, dados.getPlano());
+        }
+    }
+
+    @Test
+    public void argumentoDesconhecidoNaoEhPlano() {
+        // Formato antigo, pelo ordinal do enum
+        assertNull(CodecCallback.decodificar("p0").getPlano());
+        assertNull(CodecCallback.decodificar("pMENSAL").getPlano());
+        assertNull(CodecCallback.decodificar("p").getPlano());
+    }
+
+    @Test
+    public void formatoDesconhecido() {
+        assertNull(CodecCallback.decodificar(null));
+        assertNull(CodecCallback.decodificar(""));
+        assertNull(CodecCallback.decodificar("xmensal"));
+    }
+
+    @Test
+    public void limiteContaBytesUtf8() {
+        // 1 + 63 bytes ASCII cabe no limite
+        CodecCallback.codificar(CodecCallback.Acao.ESCOLHER_PLANO, "a".repeat(63));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limiteRecusaCaracteresMultibyte() {
+        // 1 + 32 caracteres, mas 1 + 64 bytes em UTF-8
+        CodecCallback.codificar(CodecCallback.Acao.ESCOLHER_PLANO, "ç".repeat(32));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.edulanzarin.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Os valores adicionados imitam IDs de usuário do Telegram; os consultados
+ * para medir os falsos positivos são IDs da mesma faixa que nunca foram
+ * adicionados.
+ */
+public class FiltroBloomTest {
+
+    private static final int CAPACIDADE = 10_000;
+    private static final long PRIMEIRO_ID = 5_000_000_000L;
+
+    private static String id(long i) {
+        return String.valueOf(PRIMEIRO_ID + i * 2);
+    }
+
+    private static String idAusente(long i) {
+        return String.valueOf(PRIMEIRO_ID + i * 2 + 1);
+    }
+
+    private static FiltroBloom preenchido(double taxa) {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDADE, taxa);
+        for (int i = 0; i < CAPACIDADE; i++) {
+            filtro.adicionar(id(i));
+        }
+        return filtro;
+    }
+
+    private static double taxaMedida(FiltroBloom filtro) {
+        int consultas = 100_000;
+        int positivos = 0;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.podeConter(idAusente(i))) {
+                positivos++;
+            }
+        }
+        return (double) positivos / consultas;
+    }
+
+    @Test
+    public void filtroVazioNaoContemNada() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDADE, 0.01);
+        assertFalse(filtro.podeConter(id(0)));
+        assertFalse(filtro.podeConter(""));
+    }
+
+    @Test
+    public void semFalsosNegativos() {
+        FiltroBloom filtro = preenchido(0.01);
+        for (int i = 0; i < CAPACIDADE; i++) {
+            assertTrue(id(i), filtro.podeConter(id(i)));
+        }
+    }
+
+    @Test
+    public void semFalsosNegativosAcimaDaCapacidade() {
+        FiltroBloom filtro = new FiltroBloom(100, 0.01);
+        for (int i = 0; i < CAPACIDADE; i++) {
+            filtro.adicionar(id(i));
+        }
+        for (int i = 0; i < CAPACIDADE; i++) {
+            assertTrue(id(i), filtro.podeConter(id(i)));
+        }
+    }
+
+    @Test
+    public void taxaDeFalsoPositivoProximaDaInformada() {
+        for (double taxa : new double[] { 0.1, 0.01, 0.001 }) {
+            double medida = taxaMedida(preenchido(taxa));
+            assertTrue("taxa " + taxa + ", medida " + medida, medida <= taxa * 1.5);
+            assertTrue("taxa " + taxa + ", medida " + medida, medida >= taxa / 3);
+        }
+    }
+
+    @Test
+    public void valoresComCaracteresNaoAscii() {
+        FiltroBloom filtro = new FiltroBloom(10, 0.01);
+        filtro.adicionar("ação");
+        assertTrue(filtro.podeConter("ação"));
+        assertFalse(filtro.podeConter("acao"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacidadeDeveSerPositiva() {
+        new FiltroBloom(0, 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void taxaDeveFicarEntreZeroEUm() {
+        new FiltroBloom(CAPACIDADE, 1);
+    }
+}
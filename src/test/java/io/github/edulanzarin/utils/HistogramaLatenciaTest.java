@@ -0,0 +1,121 @@
+package io.github.edulanzarin.utils;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Os valores são registrados em nanossegundos e lidos de volta em
+ * microssegundos, a resolução do histograma.
+ */
+public class HistogramaLatenciaTest {
+
+    private static final long UM_DIA_MICROS = Duration.ofDays(1).toNanos() / 1_000;
+
+    private static long micros(Duration duracao) {
+        return duracao.toNanos() / 1_000;
+    }
+
+    /**
+     * Limite superior da faixa em que o valor cai, lido pelo p50 de um
+     * histograma com o valor e outro bem maior (o percentil é limitado pelo
+     * máximo registrado).
+     */
+    private static long limiteDaFaixa(long valorMicros) {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.registrar(valorMicros * 1_000);
+        histograma.registrar(UM_DIA_MICROS * 1_000);
+        return micros(histograma.percentil(50));
+    }
+
+    @Test
+    public void histogramaVazio() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        assertEquals(0, histograma.getContagem());
+        assertEquals(Duration.ZERO, histograma.getMedia());
+        assertEquals(Duration.ZERO, histograma.percentil(99));
+        assertEquals(Duration.ZERO, histograma.getMaximo());
+    }
+
+    @Test
+    public void valoresAbaixoDe16MicrosTemFaixaPropria() {
+        for (long valor = 0; valor < 16; valor++) {
+            assertEquals(valor, limiteDaFaixa(valor));
+        }
+    }
+
+    @Test
+    public void valoresConhecidosCaemNasFaixasEsperadas() {
+        // A partir de 16 µs cada potência de 2 é dividida em 8 faixas
+        assertEquals(17, limiteDaFaixa(16));
+        assertEquals(17, limiteDaFaixa(17));
+        assertEquals(19, limiteDaFaixa(18));
+        assertEquals(31, limiteDaFaixa(30));
+        assertEquals(35, limiteDaFaixa(32));
+        assertEquals(1023, limiteDaFaixa(1000));
+        assertEquals(1151, limiteDaFaixa(1024));
+        assertEquals(1_048_575, limiteDaFaixa(1_000_000));
+    }
+
+    @Test
+    public void limiteDaFaixaFicaDentroDoErroDocumentado() {
+        for (long valor = 16; valor < UM_DIA_MICROS; valor += 1 + valor / 37) {
+            long limite = limiteDaFaixa(valor);
+            assertTrue(valor + " -> " + limite, limite >= valor);
+            assertTrue(valor + " -> " + limite, limite <= valor * 1.125);
+        }
+    }
+
+    @Test
+    public void percentisDentroDoErroDocumentado() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        Random aleatorio = new Random(42);
+        long[] valores = new long[100_000];
+        for (int i = 0; i < valores.length; i++) {
+            // Distribuição log-normal em torno de 50 ms
+            valores[i] = (long) (Math.exp(Math.log(50_000) + aleatorio.nextGaussian()));
+            histograma.registrar(valores[i] * 1_000);
+        }
+        Arrays.sort(valores);
+
+        for (double percentil : new double[] { 1, 50, 90, 99, 99.9 }) {
+            long exato = valores[(int) Math.ceil(valores.length * percentil / 100) - 1];
+            long medido = micros(histograma.percentil(percentil));
+            assertTrue("p" + percentil + ": " + exato + " -> " + medido, medido >= exato);
+            assertTrue("p" + percentil + ": " + exato + " -> " + medido, medido <= exato * 1.125);
+        }
+        assertEquals(valores[valores.length - 1], micros(histograma.percentil(100)));
+    }
+
+    @Test
+    public void mediaContagemEMaximo() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.registrar(Duration.ofMillis(10).toNanos());
+        histograma.registrar(Duration.ofMillis(20).toNanos());
+        histograma.registrar(Duration.ofMillis(30).toNanos());
+
+        assertEquals(3, histograma.getContagem());
+        assertEquals(Duration.ofMillis(20), histograma.getMedia());
+        assertEquals(Duration.ofMillis(30), histograma.getMaximo());
+        assertEquals(Duration.ofMillis(30), histograma.percentil(100));
+    }
+
+    @Test
+    public void valorAcimaDaUltimaFaixaUsaOMaximo() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        Duration enorme = Duration.ofDays(365 * 100);
+        histograma.registrar(enorme.toNanos());
+
+        assertEquals(enorme, histograma.percentil(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentilForaDoIntervalo() {
+        new HistogramaLatencia().percentil(100.1);
+    }
+}